@@ -22,6 +22,10 @@ dependencies {
 
 tasks.jar {
     archiveFileName.set("ff-spawn-${version}.jar")
+    // Lets the region surveyor run standalone: java -jar ff-spawn.jar <region-dir> ...
+    manifest {
+        attributes("Main-Class" to "com.haksndot.ffspawn.RegionSurveyor")
+    }
 }
 
 tasks.withType<JavaCompile> {
@@ -0,0 +1,153 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+
+import java.util.List;
+
+/**
+ * Clears what block changes may make stale: height cache entries of the changed chunk, and the
+ * headroom verdicts of spawn blocks next to the change. Changes without an event, e.g. by world
+ * editors, are caught when a cached spot or spawn block is re-checked before use.
+ */
+public class BlockChangeListener implements Listener {
+
+    private final ConfigManager config;
+    private final SpawnBlockVerifier verifier;
+
+    public BlockChangeListener(ConfigManager config, SpawnBlockVerifier verifier) {
+        this.config = config;
+        this.verifier = verifier;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLiquidFlow(BlockFromToEvent event) {
+        invalidate(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        // Also covers blocks formed by entities
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockIgnite(BlockIgniteEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockGrow(BlockGrowEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        invalidate(event.getBlock());
+        invalidateAll(event.getBlocks());
+        // The pushed blocks land one step further, possibly in the next chunk
+        for (Block block : event.getBlocks()) {
+            invalidate(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        invalidate(event.getBlock());
+        invalidateAll(event.getBlocks());
+        for (Block block : event.getBlocks()) {
+            invalidate(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        invalidateAll(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        invalidateAll(event.blockList());
+    }
+
+    private void invalidateAll(List<Block> blocks) {
+        // Explosions hit a few chunks at most; skip repeats of the previous one for the caches
+        long last = Long.MIN_VALUE;
+        for (Block block : blocks) {
+            verifier.blockChanged(block);
+            long key = SpawnBlockRegistry.chunkKey(block.getX() >> 4, block.getZ() >> 4);
+            if (key == last) continue;
+            last = key;
+            invalidateHeights(block);
+        }
+    }
+
+    private void invalidate(Block block) {
+        verifier.blockChanged(block);
+        invalidateHeights(block);
+    }
+
+    private void invalidateHeights(Block block) {
+        if (!config.isHeightCacheEnabled()) return;
+
+        String world = block.getWorld().getName();
+        int chunkX = block.getX() >> 4;
+        int chunkZ = block.getZ() >> 4;
+        for (SpawnZone zone : config.getZones()) {
+            HeightCache cache = zone.getHeightCache();
+            if (cache != null) cache.invalidateChunk(world, chunkX, chunkZ);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Precomputed block properties used by spawn safety checks, as bitsets over
+ * {@link Material#ordinal()}. Lookups don't allocate and the sets are never modified
+ * after construction, so they can be shared with async evaluation.
+ */
+public final class BlockRules {
+
+    /** Hazards used when the config doesn't list any. */
+    public static final List<String> DEFAULT_HAZARDS = List.of(
+            "lava", "#minecraft:fire", "#minecraft:campfires", "magma_block",
+            "cactus", "sweet_berry_bush", "wither_rose", "powder_snow");
+
+    private final BitSet solid = new BitSet();
+    private final BitSet hazard = new BitSet();
+
+    /**
+     * @param hazards Material names or block tags ({@code #namespace:tag}) that are dangerous
+     *                to spawn in or on
+     * @param logger  Receives warnings for entries that match nothing
+     */
+    public BlockRules(List<String> hazards, Logger logger) {
+        for (Material material : Material.values()) {
+            if (material.isBlock() && !material.isLegacy() && material.isSolid()) {
+                solid.set(material.ordinal());
+            }
+        }
+
+        hazard.or(resolve(hazards, "safety.hazards", logger));
+    }
+
+    /**
+     * Resolve a list of material names and block tags ({@code #namespace:tag}) into a bitset
+     * over material ordinals.
+     *
+     * @param setting Config path named in warnings for entries that match nothing
+     */
+    static BitSet resolve(List<String> entries, String setting, Logger logger) {
+        BitSet result = new BitSet();
+        for (String entry : entries) {
+            String name = entry.trim();
+            if (name.startsWith("#")) {
+                NamespacedKey key = NamespacedKey.fromString(name.substring(1).toLowerCase(Locale.ROOT));
+                Tag<Material> tag = key != null ? Bukkit.getTag(Tag.REGISTRY_BLOCKS, key, Material.class) : null;
+                if (tag == null) {
+                    logger.warning("Unknown block tag in " + setting + ": " + name);
+                    continue;
+                }
+                for (Material material : tag.getValues()) {
+                    result.set(material.ordinal());
+                }
+            } else {
+                Material material = Material.matchMaterial(name);
+                if (material == null) {
+                    logger.warning("Unknown block in " + setting + ": " + name);
+                    continue;
+                }
+                result.set(material.ordinal());
+            }
+        }
+        return result;
+    }
+
+    public boolean isSolid(Material material) {
+        return solid.get(material.ordinal());
+    }
+
+    /**
+     * Whether a material is dangerous to spawn in or on.
+     */
+    public boolean isHazard(Material material) {
+        return hazard.get(material.ordinal());
+    }
+
+    /**
+     * Whether a player can stand on this block.
+     */
+    public boolean isGround(Material material) {
+        return solid.get(material.ordinal()) && !hazard.get(material.ordinal());
+    }
+
+    /**
+     * Whether a player's feet or head can be in this block.
+     */
+    public boolean isPassable(Material material) {
+        return !solid.get(material.ordinal()) && !hazard.get(material.ordinal());
+    }
+}
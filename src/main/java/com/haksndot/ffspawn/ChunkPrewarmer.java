@@ -0,0 +1,206 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the chunks of the next spawn targets loaded, so the next respawn lands in a warm chunk
+ * instead of paying for a cold load.
+ * <p>
+ * A zone's next targets are the newest entries of its {@link LocationPool}, which are handed
+ * out first; for the spawn block group, a few blocks are picked at random in advance and the
+ * search takes those before picking new ones, which keeps the choice uniform. Each target's
+ * chunk is loaded with {@link World#getChunkAtAsync} and then held with a plugin chunk ticket
+ * through {@link ChunkTickets} (the load also makes the verifier give a prewarmed spawn block a
+ * fresh verdict) until the target is used, leaves the pool, or has been held for
+ * {@code prewarm.hold-time}. At most {@code prewarm.max-chunks} targets are held at once, taken
+ * from the head of each pool in turn. Runs every second on the main (global region) thread;
+ * taking targets may happen on any thread.
+ */
+public class ChunkPrewarmer implements Runnable {
+
+    private final ConfigManager config;
+    private final SpawnBlockManager spawnBlocks;
+    private final ChunkTickets tickets;
+    // Pooled locations that are next in line, by identity, as the pool hands out the same objects
+    private final Map<Location, ZoneTarget> zoneTargets = new IdentityHashMap<>();
+    private final ArrayDeque<BlockTarget> blockTargets = new ArrayDeque<>();
+    private int held;
+    private final LongAdder hits;
+    private final LongAdder expired;
+
+    public ChunkPrewarmer(FFSpawn plugin, ConfigManager config, SpawnBlockManager spawnBlocks, ChunkTickets tickets) {
+        this.config = config;
+        this.spawnBlocks = spawnBlocks;
+        this.tickets = tickets;
+        SpawnStats stats = plugin.getSpawnManager().getStats();
+        this.hits = stats.counter("prewarm.hits");
+        this.expired = stats.counter("prewarm.expired");
+    }
+
+    @Override
+    public synchronized void run() {
+        if (!config.isPrewarmEnabled()) {
+            releaseAll();
+            return;
+        }
+
+        long expiredBefore = System.currentTimeMillis() - config.getPrewarmHoldMillis();
+        updateZoneTargets(expiredBefore);
+        updateBlockTargets(expiredBefore);
+    }
+
+    private void updateZoneTargets(long expiredBefore) {
+        Set<Location> next = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<List<Location>> heads = new ArrayList<>();
+        if (config.isPoolEnabled()) {
+            for (SpawnZone zone : config.getZones()) {
+                List<Location> head = zone.getPool().peek(config.getPrewarmZoneTargets());
+                heads.add(head);
+                next.addAll(head);
+            }
+        }
+
+        // Forget targets that left the head of their pool without being taken, e.g. evicted
+        Iterator<Map.Entry<Location, ZoneTarget>> it = zoneTargets.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Location, ZoneTarget> entry = it.next();
+            ZoneTarget target = entry.getValue();
+            if (!next.contains(entry.getKey())) {
+                if (target.held) unpin(target.chunk);
+                it.remove();
+            } else if (target.held && target.pinnedAt < expiredBefore) {
+                // Stays known, so it isn't pinned again while it waits in the pool
+                target.held = false;
+                unpin(target.chunk);
+                expired.increment();
+            }
+        }
+
+        // Each pool's next location first, then each pool's second, and so on, so the cap
+        // keeps the targets that are handed out soonest
+        for (int rank = 0; rank < config.getPrewarmZoneTargets(); rank++) {
+            for (List<Location> head : heads) {
+                if (held >= config.getPrewarmMaxChunks()) return;
+                if (rank >= head.size()) continue;
+                Location loc = head.get(rank);
+                if (zoneTargets.containsKey(loc) || !loc.isWorldLoaded()) continue;
+                zoneTargets.put(loc, new ZoneTarget(pin(loc), System.currentTimeMillis()));
+            }
+        }
+    }
+
+    private void updateBlockTargets(long expiredBefore) {
+        Iterator<BlockTarget> it = blockTargets.iterator();
+        while (it.hasNext()) {
+            BlockTarget target = it.next();
+            if (target.pinnedAt < expiredBefore || !isRegistered(target)) {
+                it.remove();
+                unpin(target.chunk);
+                expired.increment();
+            }
+        }
+
+        int wanted = config.isSpawnBlocksEnabled() ? config.getPrewarmSpawnBlockTargets() : 0;
+        while (blockTargets.size() < wanted && held < config.getPrewarmMaxChunks()) {
+            SpawnBlock block = spawnBlocks.getRandomSpawnBlock();
+            Location loc = block != null ? block.getBlockLocation() : null;
+            if (loc == null) break;
+            blockTargets.add(new BlockTarget(block, pin(loc), System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Take the next spawn block picked in advance, or null if none is ready.
+     */
+    public synchronized SpawnBlock takeSpawnBlock() {
+        BlockTarget target;
+        while ((target = blockTargets.poll()) != null) {
+            unpin(target.chunk);
+            if (isRegistered(target)) {
+                hits.increment();
+                return target.block;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Note that a location left its pool. Its chunk is released if it was held.
+     *
+     * @param used Whether the location is used, rather than rejected by the re-check
+     */
+    public synchronized void taken(Location loc, boolean used) {
+        ZoneTarget target = zoneTargets.remove(loc);
+        if (target != null && target.held) {
+            unpin(target.chunk);
+            if (used) hits.increment();
+        }
+    }
+
+    /**
+     * Release every held chunk, e.g. after the config was reloaded.
+     */
+    public synchronized void releaseAll() {
+        for (ZoneTarget target : zoneTargets.values()) {
+            if (target.held) unpin(target.chunk);
+        }
+        zoneTargets.clear();
+        for (BlockTarget target : blockTargets) {
+            unpin(target.chunk);
+        }
+        blockTargets.clear();
+    }
+
+    /**
+     * Number of target chunks currently held.
+     */
+    public synchronized int getHeldCount() {
+        return held;
+    }
+
+    private boolean isRegistered(BlockTarget target) {
+        SpawnBlock block = target.block;
+        return spawnBlocks.isSpawnBlock(target.chunk.world, block.getX(), block.getY(), block.getZ());
+    }
+
+    private HeldChunk pin(Location loc) {
+        HeldChunk chunk = new HeldChunk(loc.getWorld(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+        held++;
+        tickets.acquire(chunk.world, chunk.x, chunk.z);
+        return chunk;
+    }
+
+    private void unpin(HeldChunk chunk) {
+        held--;
+        tickets.release(chunk.world, chunk.x, chunk.z);
+    }
+
+    /**
+     * A held chunk, kept apart from the target's location, whose world may since have unloaded.
+     */
+    private record HeldChunk(World world, int x, int z) {}
+
+    private static final class ZoneTarget {
+        final HeldChunk chunk;
+        final long pinnedAt;
+        boolean held = true;
+
+        ZoneTarget(HeldChunk chunk, long pinnedAt) {
+            this.chunk = chunk;
+            this.pinnedAt = pinnedAt;
+        }
+    }
+
+    private record BlockTarget(SpawnBlock block, HeldChunk chunk, long pinnedAt) {}
+}
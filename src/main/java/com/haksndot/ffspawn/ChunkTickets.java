@@ -0,0 +1,71 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.World;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reference-counted plugin chunk tickets, which keep chunks loaded while they are held.
+ * <p>
+ * The server keeps at most one ticket per plugin and chunk, so every part of the plugin that
+ * pins chunks goes through here: the ticket is added by the first holder and removed when the
+ * last one releases it. Adding a ticket to an unloaded chunk loads it on the spot, so the chunk
+ * is first loaded with {@link World#getChunkAtAsync} and the ticket added once it is ready, if
+ * it is still held by then. Tickets are added and removed on the thread owning the chunk. The
+ * server drops all of a plugin's tickets when it is disabled.
+ */
+public class ChunkTickets {
+
+    private final FFSpawn plugin;
+    private final Map<ChunkRef, Integer> holds = new HashMap<>();
+    // Held chunks whose ticket has been added (or is about to be, on the chunk's thread)
+    private final Set<ChunkRef> ticketed = new HashSet<>();
+
+    public ChunkTickets(FFSpawn plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Keep a chunk loaded, loading it in the background if needed, until {@link #release} is
+     * called as often.
+     */
+    public synchronized void acquire(World world, int chunkX, int chunkZ) {
+        ChunkRef ref = new ChunkRef(world, chunkX, chunkZ);
+        if (holds.merge(ref, 1, Integer::sum) == 1) {
+            world.getChunkAtAsync(chunkX, chunkZ).whenComplete((chunk, error) -> loaded(ref));
+        }
+    }
+
+    private synchronized void loaded(ChunkRef ref) {
+        // Released while loading, or already ticketed after a quick release and acquire
+        if (!holds.containsKey(ref) || !ticketed.add(ref)) return;
+        plugin.getSchedulerAdapter().runAt(ref.world(), ref.x(), ref.z(),
+                () -> ref.world().addPluginChunkTicket(ref.x(), ref.z(), plugin));
+    }
+
+    public synchronized void release(World world, int chunkX, int chunkZ) {
+        ChunkRef ref = new ChunkRef(world, chunkX, chunkZ);
+        Integer count = holds.get(ref);
+        if (count == null) return;
+        if (count > 1) {
+            holds.put(ref, count - 1);
+            return;
+        }
+        holds.remove(ref);
+        if (!ticketed.remove(ref)) return;
+        plugin.getSchedulerAdapter().runAt(world, chunkX, chunkZ,
+                () -> world.removePluginChunkTicket(chunkX, chunkZ, plugin));
+    }
+
+    /**
+     * Number of chunks currently pinned.
+     */
+    public synchronized int size() {
+        return holds.size();
+    }
+
+    private record ChunkRef(World world, int x, int z) {}
+}
@@ -0,0 +1,191 @@
+package com.haksndot.ffspawn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the claim rectangles that intersect each spawn zone.
+ * <p>
+ * Each zone's bounding square is divided into a grid of cells, and every cell lists the claims
+ * overlapping it, so a lookup touches one cell and a handful of rectangles. Instances are never
+ * modified after construction, so they can be read from any thread; the hook swaps in
+ * a new snapshot when claims change.
+ */
+public final class ClaimIndex {
+
+    /**
+     * Outcome of a lookup.
+     */
+    public enum Result {
+        /** Not inside any claim. */
+        FREE,
+        /** Inside a claim owned by the given player. */
+        OWN,
+        /** Inside an admin claim or one owned by someone else; trust needs a live check. */
+        OTHER,
+        /** Outside every indexed zone - the snapshot can't tell. */
+        UNKNOWN
+    }
+
+    private static final int CELL_SHIFT = 6; // 64-block cells
+
+    private final ZoneGrid[] grids;
+    private final int[] minX;
+    private final int[] minZ;
+    private final int[] maxX;
+    private final int[] maxZ;
+    private final long[] ownerMost;
+    private final long[] ownerLeast;
+    private final boolean[] hasOwner;
+    private final int claimCount;
+
+    /**
+     * Build an index over the given claims. Claims that miss every zone are dropped.
+     */
+    public ClaimIndex(List<SpawnZone> zones, List<ClaimRect> claims) {
+        List<ClaimRect> kept = new ArrayList<>();
+        for (ClaimRect claim : claims) {
+            if (intersectsAnyZone(zones, claim)) kept.add(claim);
+        }
+
+        this.claimCount = kept.size();
+        this.minX = new int[claimCount];
+        this.minZ = new int[claimCount];
+        this.maxX = new int[claimCount];
+        this.maxZ = new int[claimCount];
+        this.ownerMost = new long[claimCount];
+        this.ownerLeast = new long[claimCount];
+        this.hasOwner = new boolean[claimCount];
+        String[] worlds = new String[claimCount];
+        for (int id = 0; id < claimCount; id++) {
+            ClaimRect claim = kept.get(id);
+            worlds[id] = claim.worldName();
+            minX[id] = Math.min(claim.x1(), claim.x2());
+            maxX[id] = Math.max(claim.x1(), claim.x2());
+            minZ[id] = Math.min(claim.z1(), claim.z2());
+            maxZ[id] = Math.max(claim.z1(), claim.z2());
+            UUID owner = claim.owner();
+            hasOwner[id] = owner != null;
+            ownerMost[id] = owner != null ? owner.getMostSignificantBits() : 0L;
+            ownerLeast[id] = owner != null ? owner.getLeastSignificantBits() : 0L;
+        }
+
+        this.grids = new ZoneGrid[zones.size()];
+        for (int i = 0; i < grids.length; i++) {
+            grids[i] = new ZoneGrid(zones.get(i), worlds, this);
+        }
+    }
+
+    /**
+     * Look up the claim situation of a block column.
+     *
+     * @param player The player who would spawn here (null treats every claim as {@link Result#OTHER})
+     */
+    public Result query(String worldName, int x, int z, UUID player) {
+        for (ZoneGrid grid : grids) {
+            if (!grid.covers(worldName, x, z)) continue;
+
+            int[] claims = grid.cell(x, z);
+            if (claims == null) return Result.FREE;
+
+            for (int id : claims) {
+                if (x < minX[id] || x > maxX[id] || z < minZ[id] || z > maxZ[id]) continue;
+
+                boolean own = player != null && hasOwner[id]
+                        && ownerMost[id] == player.getMostSignificantBits()
+                        && ownerLeast[id] == player.getLeastSignificantBits();
+                return own ? Result.OWN : Result.OTHER;
+            }
+            return Result.FREE;
+        }
+        return Result.UNKNOWN;
+    }
+
+    /**
+     * Number of claims that intersect at least one zone.
+     */
+    public int getClaimCount() {
+        return claimCount;
+    }
+
+    /**
+     * Grid over one zone's bounding square.
+     */
+    private static final class ZoneGrid {
+        private final String worldName;
+        private final int originX;
+        private final int originZ;
+        private final int limitX;
+        private final int limitZ;
+        private final int cellsPerSide;
+        private final int[][] cells;
+
+        ZoneGrid(SpawnZone zone, String[] claimWorlds, ClaimIndex index) {
+            this.worldName = zone.getWorldName();
+            int radius = (int) Math.ceil(zone.getOuterRadius());
+            this.originX = (int) Math.floor(zone.getCenterX()) - radius;
+            this.originZ = (int) Math.floor(zone.getCenterZ()) - radius;
+            this.limitX = originX + 2 * radius + 1;
+            this.limitZ = originZ + 2 * radius + 1;
+            this.cellsPerSide = ((2 * radius + 1) >> CELL_SHIFT) + 1;
+            this.cells = new int[cellsPerSide * cellsPerSide][];
+
+            // Count first so each cell gets an exact-size array
+            int[] counts = new int[cells.length];
+            for (int pass = 0; pass < 2; pass++) {
+                for (int id = 0; id < index.claimCount; id++) {
+                    if (!claimWorlds[id].equals(worldName)) continue;
+
+                    int x0 = Math.max(index.minX[id], originX), x1 = Math.min(index.maxX[id], limitX - 1);
+                    int z0 = Math.max(index.minZ[id], originZ), z1 = Math.min(index.maxZ[id], limitZ - 1);
+                    if (x0 > x1 || z0 > z1) continue;
+
+                    for (int cz = (z0 - originZ) >> CELL_SHIFT; cz <= (z1 - originZ) >> CELL_SHIFT; cz++) {
+                        for (int cx = (x0 - originX) >> CELL_SHIFT; cx <= (x1 - originX) >> CELL_SHIFT; cx++) {
+                            int cell = cz * cellsPerSide + cx;
+                            if (pass == 0) {
+                                counts[cell]++;
+                            } else {
+                                cells[cell][--counts[cell]] = id;
+                            }
+                        }
+                    }
+                }
+                if (pass == 0) {
+                    for (int cell = 0; cell < cells.length; cell++) {
+                        if (counts[cell] > 0) cells[cell] = new int[counts[cell]];
+                    }
+                }
+            }
+        }
+
+        boolean covers(String world, int x, int z) {
+            return x >= originX && x < limitX && z >= originZ && z < limitZ && worldName.equals(world);
+        }
+
+        int[] cell(int x, int z) {
+            return cells[((z - originZ) >> CELL_SHIFT) * cellsPerSide + ((x - originX) >> CELL_SHIFT)];
+        }
+    }
+
+    private static boolean intersectsAnyZone(List<SpawnZone> zones, ClaimRect claim) {
+        int lowX = Math.min(claim.x1(), claim.x2()), highX = Math.max(claim.x1(), claim.x2());
+        int lowZ = Math.min(claim.z1(), claim.z2()), highZ = Math.max(claim.z1(), claim.z2());
+        for (SpawnZone zone : zones) {
+            if (!zone.getWorldName().equals(claim.worldName())) continue;
+            double radius = zone.getOuterRadius();
+            if (highX < zone.getCenterX() - radius - 1 || lowX > zone.getCenterX() + radius + 1) continue;
+            if (highZ < zone.getCenterZ() - radius - 1 || lowZ > zone.getCenterZ() + radius + 1) continue;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Claim rectangle between two corners, inclusive.
+     *
+     * @param owner Owner of the claim, or null for admin claims
+     */
+    public record ClaimRect(String worldName, int x1, int z1, int x2, int z2, UUID owner) {}
+}
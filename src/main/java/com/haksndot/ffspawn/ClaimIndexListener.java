@@ -0,0 +1,42 @@
+package com.haksndot.ffspawn;
+
+import me.ryanhamshire.GriefPrevention.events.ClaimCreatedEvent;
+import me.ryanhamshire.GriefPrevention.events.ClaimDeletedEvent;
+import me.ryanhamshire.GriefPrevention.events.ClaimResizeEvent;
+import me.ryanhamshire.GriefPrevention.events.ClaimTransferEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Keeps the claim snapshot in step with GriefPrevention.
+ * Only registered when GriefPrevention is installed, so its event classes are never loaded otherwise.
+ */
+public class ClaimIndexListener implements Listener {
+
+    private final GriefPreventionHook hook;
+
+    public ClaimIndexListener(GriefPreventionHook hook) {
+        this.hook = hook;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onClaimCreated(ClaimCreatedEvent event) {
+        hook.requestClaimIndexRebuild();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onClaimDeleted(ClaimDeletedEvent event) {
+        hook.requestClaimIndexRebuild();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onClaimResize(ClaimResizeEvent event) {
+        hook.requestClaimIndexRebuild();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onClaimTransfer(ClaimTransferEvent event) {
+        hook.requestClaimIndexRebuild();
+    }
+}
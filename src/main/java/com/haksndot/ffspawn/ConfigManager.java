@@ -2,9 +2,14 @@ package com.haksndot.ffspawn;
 
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.block.Biome;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
 public class ConfigManager {
@@ -12,13 +17,84 @@ public class ConfigManager {
     private final FFSpawn plugin;
     private List<SpawnZone> zones;
     private int maxAttempts;
+    private long searchBudgetNanos;
+    private long tickBudgetNanos;
     private boolean requireSolidGround;
     private int minY;
     private int maxY;
     private Set<String> blockedBiomes;
+    private Set<Biome> blockedBiomeSet;
+    private List<String> hazards;
+    private BlockRules blockRules;
     private String messageSpawned;
     private String messageFallback;
 
+    // Batched chunk evaluation config
+    private boolean batchEnabled;
+    private int batchCandidates;
+    private int ruleReorderInterval;
+    private List<String> denyGround;
+    private double minPlayerDistance;
+
+    // Respawn queue config
+    private boolean respawnQueueEnabled;
+    private int respawnQueueSyncPerTick;
+    private int respawnQueueStartsPerTick;
+    private int respawnQueueMaxConcurrent;
+
+    // Async respawn config
+    private boolean asyncRespawnEnabled;
+    private boolean firstJoinEnabled;
+    private long firstJoinMaxWaitMillis;
+    private int firstJoinExpireSeconds;
+    private HoldingPoint asyncHoldingPoint;
+
+    // Spawn block persistence config
+    private long journalFlushDelayMillis;
+    private int compactIntervalSeconds;
+
+    // Zone acceptance mask config
+    private boolean maskEnabled;
+    private int maskFailureThreshold;
+
+    // Height cache config
+    private boolean heightCacheEnabled;
+    private int heightCacheShift;
+
+    // Claim index config
+    private boolean claimIndexEnabled;
+    private int claimIndexRefreshSeconds;
+
+    // Spawn block verification config
+    private boolean verificationEnabled;
+    private long verificationTickBudgetNanos;
+    private long verificationMaxAgeMillis;
+    private int verificationStaleLoads;
+
+    // Location pool config
+    private boolean poolEnabled;
+    private int poolSize;
+    private int poolRefillInterval;
+    private int poolRefillPerRun;
+    private long poolMaxAgeMillis;
+
+    // Chunk prewarming config
+    private boolean prewarmEnabled;
+    private int prewarmZoneTargets;
+    private int prewarmSpawnBlockTargets;
+    private int prewarmMaxChunks;
+    private long prewarmHoldMillis;
+
+    // Ring pre-generation config
+    private double pregenTargetMspt;
+    private int pregenMaxConcurrent;
+    private int pregenSaveIntervalSeconds;
+
+    // Scatter config
+    private int scatterConcurrency;
+    private int scatterWaveSize;
+    private int scatterWaveInterval;
+
     // Spawn blocks config
     private boolean spawnBlocksEnabled;
     private double spawnBlockWeight;
@@ -30,6 +106,7 @@ public class ConfigManager {
         this.plugin = plugin;
         this.zones = new ArrayList<>();
         this.blockedBiomes = new HashSet<>();
+        this.blockedBiomeSet = Collections.emptySet();
         this.spawnBlockRecipeShape = new ArrayList<>();
         this.spawnBlockRecipeIngredients = new HashMap<>();
     }
@@ -44,6 +121,16 @@ public class ConfigManager {
         // Load general settings
         maxAttempts = config.getInt("max-attempts", 50);
 
+        // Load search time budgets (milliseconds in the config)
+        ConfigurationSection budget = config.getConfigurationSection("search-budget");
+        if (budget != null) {
+            searchBudgetNanos = (long) (Math.max(0, budget.getDouble("per-search", 10)) * 1_000_000);
+            tickBudgetNanos = (long) (Math.max(0, budget.getDouble("per-tick", 25)) * 1_000_000);
+        } else {
+            searchBudgetNanos = 10_000_000;
+            tickBudgetNanos = 25_000_000;
+        }
+
         // Load safety settings
         ConfigurationSection safety = config.getConfigurationSection("safety");
         if (safety != null) {
@@ -52,10 +139,155 @@ public class ConfigManager {
             maxY = safety.getInt("max-y", 255);
             List<String> biomes = safety.getStringList("blocked-biomes");
             blockedBiomes.addAll(biomes);
+            hazards = safety.isList("hazards") ? safety.getStringList("hazards") : BlockRules.DEFAULT_HAZARDS;
         } else {
             requireSolidGround = true;
             minY = 63;
             maxY = 255;
+            hazards = BlockRules.DEFAULT_HAZARDS;
+        }
+        blockRules = new BlockRules(hazards, plugin.getLogger());
+        blockedBiomeSet = resolveBlockedBiomes();
+
+        // Load location pool settings
+        ConfigurationSection pool = config.getConfigurationSection("pool");
+        if (pool != null) {
+            poolEnabled = pool.getBoolean("enabled", true);
+            poolSize = Math.max(0, pool.getInt("size", 16));
+            poolRefillInterval = Math.max(1, pool.getInt("refill-interval", 20));
+            poolRefillPerRun = Math.max(1, pool.getInt("refill-per-run", 2));
+            poolMaxAgeMillis = Math.max(1, pool.getLong("max-age", 300)) * 1000L;
+        } else {
+            poolEnabled = true;
+            poolSize = 16;
+            poolRefillInterval = 20;
+            poolRefillPerRun = 2;
+            poolMaxAgeMillis = 300_000L;
+        }
+
+        // Load chunk prewarming settings
+        ConfigurationSection prewarm = config.getConfigurationSection("prewarm");
+        if (prewarm != null) {
+            prewarmEnabled = prewarm.getBoolean("enabled", true);
+            prewarmZoneTargets = Math.max(0, prewarm.getInt("zone-targets", 2));
+            prewarmSpawnBlockTargets = Math.max(0, prewarm.getInt("spawn-block-targets", 2));
+            prewarmMaxChunks = Math.max(0, prewarm.getInt("max-chunks", 16));
+            prewarmHoldMillis = Math.max(1, prewarm.getLong("hold-time", 60)) * 1000L;
+        } else {
+            prewarmEnabled = true;
+            prewarmZoneTargets = 2;
+            prewarmSpawnBlockTargets = 2;
+            prewarmMaxChunks = 16;
+            prewarmHoldMillis = 60_000L;
+        }
+
+        // Load ring pre-generation settings
+        ConfigurationSection pregen = config.getConfigurationSection("pregen");
+        if (pregen != null) {
+            pregenTargetMspt = Math.max(1, pregen.getDouble("target-mspt", 40));
+            pregenMaxConcurrent = Math.max(1, pregen.getInt("max-concurrent", 16));
+            pregenSaveIntervalSeconds = Math.max(1, pregen.getInt("save-interval", 30));
+        } else {
+            pregenTargetMspt = 40;
+            pregenMaxConcurrent = 16;
+            pregenSaveIntervalSeconds = 30;
+        }
+
+        // Load scatter settings
+        ConfigurationSection scatter = config.getConfigurationSection("scatter");
+        if (scatter != null) {
+            scatterConcurrency = Math.max(1, scatter.getInt("concurrency", 16));
+            scatterWaveSize = Math.max(1, scatter.getInt("wave-size", 20));
+            scatterWaveInterval = Math.max(1, scatter.getInt("wave-interval", 5));
+        } else {
+            scatterConcurrency = 16;
+            scatterWaveSize = 20;
+            scatterWaveInterval = 5;
+        }
+
+        // Load batched chunk evaluation settings
+        ConfigurationSection batch = config.getConfigurationSection("batch");
+        if (batch != null) {
+            batchEnabled = batch.getBoolean("enabled", true);
+            batchCandidates = Math.max(1, Math.min(64, batch.getInt("candidates-per-chunk", 8)));
+        } else {
+            batchEnabled = true;
+            batchCandidates = 8;
+        }
+
+        // Load spawn rule settings
+        ConfigurationSection rules = config.getConfigurationSection("rules");
+        if (rules != null) {
+            ruleReorderInterval = Math.max(16, rules.getInt("reorder-interval", 256));
+            denyGround = rules.getStringList("deny-ground");
+            minPlayerDistance = Math.max(0, rules.getDouble("min-player-distance", 0));
+        } else {
+            ruleReorderInterval = 256;
+            denyGround = Collections.emptyList();
+            minPlayerDistance = 0;
+        }
+
+        // Load respawn queue settings
+        ConfigurationSection respawnQueue = config.getConfigurationSection("respawn-queue");
+        if (respawnQueue != null) {
+            respawnQueueEnabled = respawnQueue.getBoolean("enabled", true);
+            respawnQueueSyncPerTick = Math.max(0, respawnQueue.getInt("sync-per-tick", 2));
+            respawnQueueStartsPerTick = Math.max(1, respawnQueue.getInt("starts-per-tick", 2));
+            respawnQueueMaxConcurrent = Math.max(1, respawnQueue.getInt("max-concurrent", 4));
+        } else {
+            respawnQueueEnabled = true;
+            respawnQueueSyncPerTick = 2;
+            respawnQueueStartsPerTick = 2;
+            respawnQueueMaxConcurrent = 4;
+        }
+
+        // Load async respawn settings
+        ConfigurationSection async = config.getConfigurationSection("async-respawn");
+        if (async != null) {
+            asyncRespawnEnabled = async.getBoolean("enabled", false);
+            try {
+                asyncHoldingPoint = HoldingPoint.valueOf(
+                        async.getString("holding-point", "world-spawn").toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Unknown async-respawn.holding-point, using world-spawn");
+                asyncHoldingPoint = HoldingPoint.WORLD_SPAWN;
+            }
+        } else {
+            asyncRespawnEnabled = false;
+            asyncHoldingPoint = HoldingPoint.WORLD_SPAWN;
+        }
+
+        // Load first join settings
+        ConfigurationSection firstJoin = config.getConfigurationSection("first-join");
+        if (firstJoin != null) {
+            firstJoinEnabled = firstJoin.getBoolean("enabled", true);
+            firstJoinMaxWaitMillis = Math.max(0, firstJoin.getLong("max-wait-millis", 2000));
+            firstJoinExpireSeconds = Math.max(5, firstJoin.getInt("expire-after", 60));
+        } else {
+            firstJoinEnabled = true;
+            firstJoinMaxWaitMillis = 2000;
+            firstJoinExpireSeconds = 60;
+        }
+
+        // Load zone acceptance mask settings (needed before zones are created)
+        ConfigurationSection mask = config.getConfigurationSection("mask");
+        if (mask != null) {
+            maskEnabled = mask.getBoolean("enabled", true);
+            maskFailureThreshold = Math.max(1, Math.min(100, mask.getInt("failure-threshold", 8)));
+        } else {
+            maskEnabled = true;
+            maskFailureThreshold = 8;
+        }
+
+        // Load height cache settings (needed before zones are created)
+        ConfigurationSection heightCache = config.getConfigurationSection("height-cache");
+        if (heightCache != null) {
+            heightCacheEnabled = heightCache.getBoolean("enabled", true);
+            int resolution = Math.max(1, Math.min(16, heightCache.getInt("resolution", 4)));
+            heightCacheShift = 31 - Integer.numberOfLeadingZeros(resolution);
+        } else {
+            heightCacheEnabled = true;
+            heightCacheShift = 2;
         }
 
         // Load spawn zones
@@ -65,6 +297,13 @@ public class ConfigManager {
                 ConfigurationSection zoneConfig = zonesSection.getConfigurationSection(key);
                 if (zoneConfig != null) {
                     try {
+                        String modeName = zoneConfig.getString("chunk-mode", "any");
+                        SpawnZone.ChunkMode chunkMode = SpawnZone.ChunkMode.fromConfig(modeName);
+                        if (chunkMode == null) {
+                            plugin.getLogger().warning("Unknown chunk-mode '" + modeName + "' in zone '" + key +
+                                    "', using 'any'.");
+                            chunkMode = SpawnZone.ChunkMode.ANY;
+                        }
                         SpawnZone zone = new SpawnZone(
                                 key,
                                 zoneConfig.getString("world", "world"),
@@ -72,8 +311,13 @@ public class ConfigManager {
                                 zoneConfig.getDouble("center-z", 0),
                                 zoneConfig.getDouble("inner-radius", 0),
                                 zoneConfig.getDouble("outer-radius", 500),
-                                zoneConfig.getDouble("weight", 1.0)
+                                zoneConfig.getDouble("weight", 1.0),
+                                chunkMode
                         );
+                        zone.getPool().setCapacity(poolEnabled ? poolSize : 0);
+                        attachMask(zone);
+                        attachSurvey(zone);
+                        attachHeightCache(zone);
                         zones.add(zone);
                         plugin.getLogger().info("Loaded zone: " + zone);
                     } catch (Exception e) {
@@ -114,6 +358,40 @@ public class ConfigManager {
             spawnBlockRecipeEnabled = true;
         }
 
+        // Load spawn block persistence settings
+        ConfigurationSection persistence = config.getConfigurationSection("persistence");
+        if (persistence != null) {
+            journalFlushDelayMillis = Math.max(0, persistence.getLong("flush-delay", 100));
+            compactIntervalSeconds = Math.max(1, persistence.getInt("compact-interval", 300));
+        } else {
+            journalFlushDelayMillis = 100;
+            compactIntervalSeconds = 300;
+        }
+
+        // Load claim index settings
+        ConfigurationSection claimIndex = config.getConfigurationSection("claim-index");
+        if (claimIndex != null) {
+            claimIndexEnabled = claimIndex.getBoolean("enabled", true);
+            claimIndexRefreshSeconds = Math.max(10, claimIndex.getInt("refresh-interval", 300));
+        } else {
+            claimIndexEnabled = true;
+            claimIndexRefreshSeconds = 300;
+        }
+
+        // Load spawn block verification settings
+        ConfigurationSection verification = config.getConfigurationSection("verification");
+        if (verification != null) {
+            verificationEnabled = verification.getBoolean("enabled", true);
+            verificationTickBudgetNanos = Math.max(10, verification.getLong("tick-budget-micros", 500)) * 1000L;
+            verificationMaxAgeMillis = Math.max(1, verification.getLong("max-age", 600)) * 1000L;
+            verificationStaleLoads = Math.max(0, verification.getInt("stale-loads", 1));
+        } else {
+            verificationEnabled = true;
+            verificationTickBudgetNanos = 500_000L;
+            verificationMaxAgeMillis = 600_000L;
+            verificationStaleLoads = 1;
+        }
+
         // Load messages
         ConfigurationSection messages = config.getConfigurationSection("messages");
         if (messages != null) {
@@ -127,6 +405,163 @@ public class ConfigManager {
         if (zones.isEmpty() && !spawnBlocksEnabled) {
             plugin.getLogger().warning("No spawn zones configured and spawn blocks disabled!");
         }
+
+        zonesChanged();
+    }
+
+    /**
+     * Resolve the blocked biome names once, so checks compare biome references instead of
+     * building key strings. Names are as in the biome key, with or without a namespace.
+     * The returned set is never modified, so async evaluation may keep a reference.
+     */
+    private Set<Biome> resolveBlockedBiomes() {
+        Set<Biome> resolved = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String name : blockedBiomes) {
+            String lower = name.trim().toLowerCase(Locale.ROOT);
+            NamespacedKey key = lower.contains(":") ? NamespacedKey.fromString(lower) : NamespacedKey.minecraft(lower);
+            Biome biome = key != null ? Registry.BIOME.get(key) : null;
+            if (biome == null) {
+                plugin.getLogger().warning("Unknown biome in safety.blocked-biomes: " + name);
+                continue;
+            }
+            resolved.add(biome);
+        }
+        return resolved;
+    }
+
+    private void zonesChanged() {
+        if (plugin.getSpawnManager() != null) {
+            plugin.getSpawnManager().invalidateSampler();
+            plugin.getSpawnManager().invalidateRules();
+        }
+        if (plugin.getGPHook() != null) {
+            plugin.getGPHook().requestClaimIndexRebuild();
+        }
+    }
+
+    private void attachMask(SpawnZone zone) {
+        if (!maskEnabled) {
+            zone.setMask(null);
+            return;
+        }
+        try {
+            zone.setMask(ZoneMask.load(zone, getMaskFile(zone)));
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to load mask for zone '" + zone.getName() + "': " + e.getMessage());
+            zone.setMask(new ZoneMask(zone));
+        }
+    }
+
+    public File getMaskFile(SpawnZone zone) {
+        return new File(plugin.getDataFolder(), "masks/" + zone.getName() + ".mask");
+    }
+
+    /**
+     * Write every zone mask that changed since it was loaded or last saved.
+     */
+    public void saveMasks() {
+        for (SpawnZone zone : zones) {
+            ZoneMask mask = zone.getMask();
+            if (mask == null) continue;
+            try {
+                mask.saveIfDirty(getMaskFile(zone));
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to save mask for zone '" + zone.getName() + "': " + e.getMessage());
+            }
+        }
+    }
+
+    private void attachHeightCache(SpawnZone zone) {
+        zone.setHeightCache(null);
+        if (!heightCacheEnabled) return;
+        try {
+            zone.setHeightCache(HeightCache.open(zone, getHeightCacheFile(zone), heightCacheShift, getSafetyHash()));
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to open height cache for zone '" + zone.getName() + "': " + e.getMessage());
+        }
+    }
+
+    public File getHeightCacheFile(SpawnZone zone) {
+        return new File(plugin.getDataFolder(), "caches/" + zone.getName() + ".heights");
+    }
+
+    public File getPregenFile(SpawnZone zone) {
+        return new File(plugin.getDataFolder(), "pregen/" + zone.getName() + ".progress");
+    }
+
+    /**
+     * Hash of the settings that decide whether a column is safe. Cached verdicts computed
+     * under different settings are discarded.
+     */
+    private int getSafetyHash() {
+        return Objects.hash(requireSolidGround, minY, maxY, new TreeSet<>(blockedBiomes), hazards);
+    }
+
+    /**
+     * Write every zone's height cache to disk.
+     */
+    public void flushHeightCaches() {
+        for (SpawnZone zone : zones) {
+            HeightCache cache = zone.getHeightCache();
+            if (cache != null) cache.flush();
+        }
+    }
+
+    /**
+     * Attach the zone's survey index if one was built for its current ring.
+     */
+    private void attachSurvey(SpawnZone zone) {
+        zone.setSurvey(null);
+        File file = getSurveyFile(zone);
+        if (!file.exists()) return;
+
+        try {
+            SurveyIndex survey = SurveyIndex.open(file.toPath());
+            if (!survey.matches(zone.getCenterX(), zone.getCenterZ(), zone.getInnerRadius(), zone.getOuterRadius())) {
+                plugin.getLogger().warning("Survey of zone '" + zone.getName() + "' is for a different area - " +
+                        "run /ffs survey " + zone.getName() + " again");
+                return;
+            }
+            classifySurvey(survey);
+            zone.setSurvey(survey);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to load survey for zone '" + zone.getName() + "': " + e.getMessage());
+        }
+    }
+
+    public File getSurveyFile(SpawnZone zone) {
+        return new File(plugin.getDataFolder(), "surveys/" + zone.getName() + ".survey");
+    }
+
+    /**
+     * Mark the usable columns of a survey using the current safety settings, with the same
+     * ground, headroom, biome and Y limits as live candidates. Columns whose surface is below
+     * min-y stay usable: the live check searches upward from min-y, which the survey can't.
+     */
+    public void classifySurvey(SurveyIndex survey) {
+        String[] blockNames = survey.getBlockNames();
+        boolean[] groundOk = new boolean[blockNames.length];
+        boolean[] passable = new boolean[blockNames.length];
+        for (int i = 0; i < blockNames.length; i++) {
+            Material material = Material.matchMaterial(blockNames[i]);
+            if (!requireSolidGround) {
+                groundOk[i] = true;
+                passable[i] = true;
+            } else if (material != null) {
+                groundOk[i] = blockRules.isGround(material);
+                passable[i] = blockRules.isPassable(material);
+            }
+        }
+
+        String[] biomeNames = survey.getBiomeNames();
+        boolean[] biomeBlocked = new boolean[biomeNames.length];
+        for (int i = 0; i < biomeNames.length; i++) {
+            NamespacedKey key = NamespacedKey.fromString(biomeNames[i]);
+            Biome biome = key != null ? Registry.BIOME.get(key) : null;
+            biomeBlocked[i] = biome != null && blockedBiomeSet.contains(biome);
+        }
+
+        survey.classify(groundOk, passable, biomeBlocked, minY, maxY < 255 ? maxY : Integer.MAX_VALUE);
     }
 
     private String colorize(String message) {
@@ -136,7 +571,12 @@ public class ConfigManager {
 
     public void addZone(SpawnZone zone) {
         // Add to memory
+        zone.getPool().setCapacity(poolEnabled ? poolSize : 0);
+        attachMask(zone);
+        attachSurvey(zone);
+        attachHeightCache(zone);
         zones.add(zone);
+        zonesChanged();
 
         // Save to config
         FileConfiguration config = plugin.getConfig();
@@ -147,6 +587,7 @@ public class ConfigManager {
         config.set(path + ".inner-radius", zone.getInnerRadius());
         config.set(path + ".outer-radius", zone.getOuterRadius());
         config.set(path + ".weight", zone.getWeight());
+        config.set(path + ".chunk-mode", zone.getChunkMode().getConfigName());
         plugin.saveConfig();
     }
 
@@ -161,6 +602,7 @@ public class ConfigManager {
 
         if (toRemove != null) {
             zones.remove(toRemove);
+            zonesChanged();
             FileConfiguration config = plugin.getConfig();
             config.set("zones." + toRemove.getName(), null);
             plugin.saveConfig();
@@ -173,10 +615,35 @@ public class ConfigManager {
         return zones;
     }
 
+    /**
+     * Zone with the given name, ignoring case, or null if there is none.
+     */
+    public SpawnZone getZone(String name) {
+        for (SpawnZone zone : zones) {
+            if (zone.getName().equalsIgnoreCase(name)) return zone;
+        }
+        return null;
+    }
+
     public int getMaxAttempts() {
         return maxAttempts;
     }
 
+    /**
+     * Time one synchronous spawn search may take, in nanoseconds; 0 for no limit.
+     */
+    public long getSearchBudgetNanos() {
+        return searchBudgetNanos;
+    }
+
+    /**
+     * Time all synchronous spawn searches in one tick may take together, in nanoseconds;
+     * 0 for no limit.
+     */
+    public long getTickBudgetNanos() {
+        return tickBudgetNanos;
+    }
+
     public boolean isRequireSolidGround() {
         return requireSolidGround;
     }
@@ -193,6 +660,25 @@ public class ConfigManager {
         return blockedBiomes;
     }
 
+    /**
+     * Whether spawning is not allowed in a biome. Compares by identity, so it is cheap
+     * enough for the hot path.
+     */
+    public boolean isBiomeBlocked(Biome biome) {
+        return !blockedBiomeSet.isEmpty() && blockedBiomeSet.contains(biome);
+    }
+
+    public Set<Biome> getBlockedBiomeSet() {
+        return blockedBiomeSet;
+    }
+
+    /**
+     * Solid and hazard block sets used by safety checks.
+     */
+    public BlockRules getBlockRules() {
+        return blockRules;
+    }
+
     public String getMessageSpawned() {
         return messageSpawned;
     }
@@ -201,6 +687,139 @@ public class ConfigManager {
         return messageFallback;
     }
 
+    public boolean isRespawnQueueEnabled() {
+        return respawnQueueEnabled;
+    }
+
+    /**
+     * Synchronous respawn searches allowed per tick before further respawns are queued.
+     */
+    public int getRespawnQueueSyncPerTick() {
+        return respawnQueueSyncPerTick;
+    }
+
+    public int getRespawnQueueStartsPerTick() {
+        return respawnQueueStartsPerTick;
+    }
+
+    public int getRespawnQueueMaxConcurrent() {
+        return respawnQueueMaxConcurrent;
+    }
+
+    public boolean isFirstJoinEnabled() {
+        return firstJoinEnabled;
+    }
+
+    /**
+     * How long a login may wait for its first-join search before joining without the result.
+     */
+    public long getFirstJoinMaxWaitMillis() {
+        return firstJoinMaxWaitMillis;
+    }
+
+    /**
+     * Seconds after which a first-join search whose player never joined is dropped.
+     */
+    public int getFirstJoinExpireSeconds() {
+        return firstJoinExpireSeconds;
+    }
+
+    public boolean isAsyncRespawnEnabled() {
+        return asyncRespawnEnabled;
+    }
+
+    public HoldingPoint getAsyncHoldingPoint() {
+        return asyncHoldingPoint;
+    }
+
+    public boolean isPoolEnabled() {
+        return poolEnabled;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getPoolRefillInterval() {
+        return poolRefillInterval;
+    }
+
+    public int getPoolRefillPerRun() {
+        return poolRefillPerRun;
+    }
+
+    public long getPoolMaxAgeMillis() {
+        return poolMaxAgeMillis;
+    }
+
+    public boolean isPrewarmEnabled() {
+        return prewarmEnabled;
+    }
+
+    /**
+     * Next pooled locations per zone whose chunks are kept loaded.
+     */
+    public int getPrewarmZoneTargets() {
+        return prewarmZoneTargets;
+    }
+
+    /**
+     * Spawn blocks picked in advance, with their chunks kept loaded.
+     */
+    public int getPrewarmSpawnBlockTargets() {
+        return prewarmSpawnBlockTargets;
+    }
+
+    /**
+     * Most chunks held by prewarming at once, over all zones and spawn blocks.
+     */
+    public int getPrewarmMaxChunks() {
+        return prewarmMaxChunks;
+    }
+
+    public long getPrewarmHoldMillis() {
+        return prewarmHoldMillis;
+    }
+
+    /**
+     * Average tick time (ms) above which pre-generation backs off.
+     */
+    public double getPregenTargetMspt() {
+        return pregenTargetMspt;
+    }
+
+    /**
+     * Most chunk requests pre-generation keeps in flight.
+     */
+    public int getPregenMaxConcurrent() {
+        return pregenMaxConcurrent;
+    }
+
+    public int getPregenSaveIntervalSeconds() {
+        return pregenSaveIntervalSeconds;
+    }
+
+    /**
+     * Destinations a scatter searches and loads at once.
+     */
+    public int getScatterConcurrency() {
+        return scatterConcurrency;
+    }
+
+    /**
+     * Players a scatter moves per wave.
+     */
+    public int getScatterWaveSize() {
+        return scatterWaveSize;
+    }
+
+    /**
+     * Ticks between a scatter's waves.
+     */
+    public int getScatterWaveInterval() {
+        return scatterWaveInterval;
+    }
+
     public boolean isSpawnBlocksEnabled() {
         return spawnBlocksEnabled;
     }
@@ -220,4 +839,91 @@ public class ConfigManager {
     public Map<Character, Material> getSpawnBlockRecipeIngredients() {
         return spawnBlockRecipeIngredients;
     }
+
+    public long getJournalFlushDelayMillis() {
+        return journalFlushDelayMillis;
+    }
+
+    public int getCompactIntervalSeconds() {
+        return compactIntervalSeconds;
+    }
+
+    public boolean isMaskEnabled() {
+        return maskEnabled;
+    }
+
+    public int getMaskFailureThreshold() {
+        return maskFailureThreshold;
+    }
+
+    /**
+     * Columns evaluated per loaded chunk; 1 when batching is disabled.
+     */
+    public int getBatchCandidates() {
+        return batchEnabled ? batchCandidates : 1;
+    }
+
+    /**
+     * Candidates between re-orderings of a zone's spawn rules.
+     */
+    public int getRuleReorderInterval() {
+        return ruleReorderInterval;
+    }
+
+    /**
+     * Blocks (names or #tags) a spawn may not stand on.
+     */
+    public List<String> getDenyGround() {
+        return denyGround;
+    }
+
+    /**
+     * Minimum distance from other online players, 0 when disabled.
+     */
+    public double getMinPlayerDistance() {
+        return minPlayerDistance;
+    }
+
+    public boolean isHeightCacheEnabled() {
+        return heightCacheEnabled;
+    }
+
+    /**
+     * Height cache cell size in blocks.
+     */
+    public int getHeightCacheResolution() {
+        return 1 << heightCacheShift;
+    }
+
+    public boolean isClaimIndexEnabled() {
+        return claimIndexEnabled;
+    }
+
+    public int getClaimIndexRefreshSeconds() {
+        return claimIndexRefreshSeconds;
+    }
+
+    public boolean isVerificationEnabled() {
+        return verificationEnabled;
+    }
+
+    public long getVerificationTickBudgetNanos() {
+        return verificationTickBudgetNanos;
+    }
+
+    public long getVerificationMaxAgeMillis() {
+        return verificationMaxAgeMillis;
+    }
+
+    public int getVerificationStaleLoads() {
+        return verificationStaleLoads;
+    }
+
+    /**
+     * Where a player waits while an asynchronous spawn search runs.
+     */
+    public enum HoldingPoint {
+        WORLD_SPAWN,
+        LAST_POOLED
+    }
 }
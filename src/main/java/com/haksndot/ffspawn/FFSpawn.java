@@ -1,5 +1,6 @@
 package com.haksndot.ffspawn;
 
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class FFSpawn extends JavaPlugin {
@@ -9,6 +10,22 @@ public class FFSpawn extends JavaPlugin {
     private ConfigManager configManager;
     private GriefPreventionHook gpHook;
     private SpawnBlockManager spawnBlockManager;
+    private PoolRefiller poolRefiller;
+    private SpawnBlockVerifier spawnBlockVerifier;
+    private RespawnScheduler respawnScheduler;
+    private ChunkTickets chunkTickets;
+    private FirstJoinListener firstJoinListener;
+    private ChunkPrewarmer prewarmer;
+    private RingPregenerator pregenerator;
+    private FFSpawnService service;
+    private SchedulerAdapter scheduler;
+    private SchedulerAdapter.Task poolRefillTask;
+    private SchedulerAdapter.Task compactTask;
+    private SchedulerAdapter.Task verifyTask;
+    private SchedulerAdapter.Task claimIndexTask;
+    private SchedulerAdapter.Task respawnQueueTask;
+    private SchedulerAdapter.Task prewarmTask;
+    private SchedulerAdapter.Task pregenTask;
 
     @Override
     public void onEnable() {
@@ -17,6 +34,11 @@ public class FFSpawn extends JavaPlugin {
         // Save default config
         saveDefaultConfig();
 
+        scheduler = new SchedulerAdapter(this);
+        if (scheduler.isFolia()) {
+            getLogger().info("Folia detected - spawn checks run on their regions' threads.");
+        }
+
         // Initialize managers
         configManager = new ConfigManager(this);
         configManager.loadConfig();
@@ -25,6 +47,8 @@ public class FFSpawn extends JavaPlugin {
         gpHook = new GriefPreventionHook(this);
         if (gpHook.isEnabled()) {
             getLogger().info("GriefPrevention integration enabled!");
+            getServer().getPluginManager().registerEvents(new ClaimIndexListener(gpHook), this);
+            startClaimIndexRefresh();
         } else {
             getLogger().info("GriefPrevention not found - claim checking disabled.");
         }
@@ -37,9 +61,47 @@ public class FFSpawn extends JavaPlugin {
         spawnManager = new SpawnManager(this, configManager, gpHook);
         spawnManager.setSpawnBlockManager(spawnBlockManager);
 
+        // Periodically fold the spawn block journal into the snapshot and save zone masks and caches
+        startCompaction();
+
+        // Verify spawn blocks as their chunks load, within a per-tick budget
+        spawnBlockVerifier = new SpawnBlockVerifier(this, configManager, spawnBlockManager, spawnManager);
+        verifyTask = scheduler.runTimer(spawnBlockVerifier, 1L, 1L);
+
+        // Start the background pool refiller
+        poolRefiller = new PoolRefiller(this, configManager, spawnManager);
+        startPoolRefiller();
+
+        // Spread respawn searches over ticks during respawn storms
+        respawnScheduler = new RespawnScheduler(this, configManager, spawnManager);
+        respawnQueueTask = scheduler.runTimer(respawnScheduler, 1L, 1L);
+
+        // Keep the chunks of the next spawn targets loaded
+        chunkTickets = new ChunkTickets(this);
+        prewarmer = new ChunkPrewarmer(this, configManager, spawnBlockManager, chunkTickets);
+        spawnManager.setPrewarmer(prewarmer);
+        prewarmTask = scheduler.runTimer(prewarmer, 20L, 20L);
+
+        // Generate zone rings in the background, resuming a job left unfinished
+        pregenerator = new RingPregenerator(this, configManager, spawnManager);
+        pregenerator.resumeSaved();
+        pregenTask = scheduler.runTimer(pregenerator, 1L, 1L);
+
+        // Resolve first-join spawns while the login is still being processed
+        firstJoinListener = new FirstJoinListener(this, configManager, spawnManager, chunkTickets);
+
+        // Let other plugins search through the same pools and caches
+        service = new FFSpawnService(this, spawnManager);
+        getServer().getServicesManager().register(FFSpawnService.class, service, this, ServicePriority.Normal);
+
         // Register event listeners
         getServer().getPluginManager().registerEvents(new RespawnListener(this), this);
         getServer().getPluginManager().registerEvents(new SpawnBlockListener(this, spawnBlockManager), this);
+        getServer().getPluginManager().registerEvents(spawnBlockVerifier, this);
+        getServer().getPluginManager().registerEvents(respawnScheduler, this);
+        getServer().getPluginManager().registerEvents(firstJoinListener, this);
+        getServer().getPluginManager().registerEvents(new BlockChangeListener(configManager, spawnBlockVerifier), this);
+        getServer().getPluginManager().registerEvents(new ZoneWorldListener(configManager), this);
 
         // Register commands
         FFSpawnCommand command = new FFSpawnCommand(this);
@@ -52,9 +114,38 @@ public class FFSpawn extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (poolRefillTask != null) {
+            poolRefillTask.cancel();
+        }
+        if (compactTask != null) {
+            compactTask.cancel();
+        }
+        if (verifyTask != null) {
+            verifyTask.cancel();
+        }
+        if (claimIndexTask != null) {
+            claimIndexTask.cancel();
+        }
+        if (respawnQueueTask != null) {
+            respawnQueueTask.cancel();
+        }
+        if (prewarmTask != null) {
+            prewarmTask.cancel();
+        }
+        if (pregenTask != null) {
+            pregenTask.cancel();
+        }
+        if (pregenerator != null) {
+            pregenerator.stop(false);
+        }
+        if (configManager != null) {
+            configManager.saveMasks();
+            configManager.flushHeightCaches();
+        }
         if (spawnBlockManager != null) {
-            spawnBlockManager.saveSpawnBlocks();
+            spawnBlockManager.shutdown();
         }
+        getServer().getServicesManager().unregisterAll(this);
         getLogger().info("FFSpawn disabled.");
     }
 
@@ -62,6 +153,10 @@ public class FFSpawn extends JavaPlugin {
         return instance;
     }
 
+    public SchedulerAdapter getSchedulerAdapter() {
+        return scheduler;
+    }
+
     public SpawnManager getSpawnManager() {
         return spawnManager;
     }
@@ -78,11 +173,89 @@ public class FFSpawn extends JavaPlugin {
         return spawnBlockManager;
     }
 
+    public SpawnBlockVerifier getSpawnBlockVerifier() {
+        return spawnBlockVerifier;
+    }
+
+    public RespawnScheduler getRespawnScheduler() {
+        return respawnScheduler;
+    }
+
+    public ChunkTickets getChunkTickets() {
+        return chunkTickets;
+    }
+
+    public ChunkPrewarmer getChunkPrewarmer() {
+        return prewarmer;
+    }
+
+    public FirstJoinListener getFirstJoinListener() {
+        return firstJoinListener;
+    }
+
+    public RingPregenerator getRingPregenerator() {
+        return pregenerator;
+    }
+
+    public FFSpawnService getService() {
+        return service;
+    }
+
     public void reload() {
+        // Zones are rebuilt below; the job picks up the new zone from its saved progress
+        pregenerator.stop(false);
+        configManager.saveMasks();
+        configManager.flushHeightCaches();
         reloadConfig();
         configManager.loadConfig();
         spawnBlockManager.loadSpawnBlocks();
+        spawnBlockVerifier.reset();
+        prewarmer.releaseAll();
+        pregenerator.resumeSaved();
+        startCompaction();
+        startPoolRefiller();
+        if (gpHook.isEnabled()) {
+            startClaimIndexRefresh();
+        }
         getLogger().info("Configuration reloaded! " + configManager.getZones().size() + " zone(s), " +
                 spawnBlockManager.getSpawnBlockCount() + " spawn block(s) loaded.");
     }
+
+    private void startPoolRefiller() {
+        if (poolRefillTask != null) {
+            poolRefillTask.cancel();
+            poolRefillTask = null;
+        }
+        poolRefiller.reset();
+
+        if (configManager.isPoolEnabled()) {
+            long interval = configManager.getPoolRefillInterval();
+            poolRefillTask = scheduler.runTimer(poolRefiller, interval, interval);
+        }
+    }
+
+    /**
+     * Build the claim snapshot now and refresh it periodically, in case claims change
+     * without an event (e.g. expiry or admin tools).
+     */
+    private void startClaimIndexRefresh() {
+        if (claimIndexTask != null) {
+            claimIndexTask.cancel();
+        }
+        gpHook.rebuildClaimIndex();
+        long interval = configManager.getClaimIndexRefreshSeconds() * 20L;
+        claimIndexTask = scheduler.runTimer(gpHook::rebuildClaimIndex, interval, interval);
+    }
+
+    private void startCompaction() {
+        if (compactTask != null) {
+            compactTask.cancel();
+        }
+        long interval = configManager.getCompactIntervalSeconds() * 20L;
+        compactTask = scheduler.runTimer(() -> {
+            spawnBlockManager.compactIfNeeded();
+            configManager.saveMasks();
+            configManager.flushHeightCaches();
+        }, interval, interval);
+    }
 }
@@ -9,8 +9,12 @@ import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.util.*;;
 
@@ -18,6 +22,8 @@ public class FFSpawnCommand implements CommandExecutor, TabCompleter {
 
     private final FFSpawn plugin;
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+    private boolean surveyRunning;
+    private boolean benchRunning;
 
     public FFSpawnCommand(FFSpawn plugin) {
         this.plugin = plugin;
@@ -40,12 +46,19 @@ public class FFSpawnCommand implements CommandExecutor, TabCompleter {
             case "list" -> handleList(sender);
             case "addzone" -> handleAddZone(sender, args);
             case "removezone" -> handleRemoveZone(sender, args);
+            case "mask" -> handleMask(sender, args);
+            case "survey" -> handleSurvey(sender, args);
+            case "pregen" -> handlePregen(sender, args);
+            case "scatter" -> handleScatter(sender, args);
             case "test" -> handleTest(sender, args);
             case "info" -> handleInfo(sender);
+            case "stats" -> handleStats(sender, args);
             case "listblocks" -> handleListBlocks(sender);
             case "removeblock" -> handleRemoveBlock(sender, args);
             case "blockinfo" -> handleBlockInfo(sender);
             case "giveblock" -> handleGiveBlock(sender, args);
+            case "exportblocks" -> handleExportBlocks(sender);
+            case "bench" -> handleBench(sender, args);
             default -> showHelp(sender);
         }
 
@@ -58,13 +71,20 @@ public class FFSpawnCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.YELLOW + "/ffs list" + ChatColor.GRAY + " - List all spawn zones");
         sender.sendMessage(ChatColor.YELLOW + "/ffs addzone <name> <inner> <outer> [weight]" + ChatColor.GRAY + " - Add zone at your location");
         sender.sendMessage(ChatColor.YELLOW + "/ffs removezone <name>" + ChatColor.GRAY + " - Remove a spawn zone");
+        sender.sendMessage(ChatColor.YELLOW + "/ffs mask <zone> [reset]" + ChatColor.GRAY + " - Show or reset a zone's sampling mask");
+        sender.sendMessage(ChatColor.YELLOW + "/ffs survey <zone> [threads]" + ChatColor.GRAY + " - Survey a zone from the region files");
+        sender.sendMessage(ChatColor.YELLOW + "/ffs pregen [zone] [stop]" + ChatColor.GRAY + " - Pre-generate a zone's chunks in the background");
         sender.sendMessage(ChatColor.YELLOW + "/ffs test [player]" + ChatColor.GRAY + " - Teleport to random spawn");
+        sender.sendMessage(ChatColor.YELLOW + "/ffs scatter <zone> <players> [min-separation]" + ChatColor.GRAY + " - Scatter players across a zone");
         sender.sendMessage(ChatColor.YELLOW + "/ffs info" + ChatColor.GRAY + " - Show plugin status");
+        sender.sendMessage(ChatColor.YELLOW + "/ffs stats [reset]" + ChatColor.GRAY + " - Show spawn search counters");
         sender.sendMessage(ChatColor.GOLD + "--- Spawn Blocks ---");
         sender.sendMessage(ChatColor.YELLOW + "/ffs listblocks" + ChatColor.GRAY + " - List all spawn blocks");
         sender.sendMessage(ChatColor.YELLOW + "/ffs removeblock <x> <y> <z> [world]" + ChatColor.GRAY + " - Remove spawn block");
         sender.sendMessage(ChatColor.YELLOW + "/ffs blockinfo" + ChatColor.GRAY + " - Info about block you're looking at");
         sender.sendMessage(ChatColor.YELLOW + "/ffs giveblock [player]" + ChatColor.GRAY + " - Give a spawn block item");
+        sender.sendMessage(ChatColor.YELLOW + "/ffs exportblocks" + ChatColor.GRAY + " - Export spawn blocks to YAML");
+        sender.sendMessage(ChatColor.YELLOW + "/ffs bench [events/s]" + ChatColor.GRAY + " - Benchmark block event checks");
     }
 
     private void handleReload(CommandSender sender) {
@@ -87,7 +107,9 @@ public class FFSpawnCommand implements CommandExecutor, TabCompleter {
                     "center=(" + (int) zone.getCenterX() + ", " + (int) zone.getCenterZ() + "), " +
                     "inner=" + (int) zone.getInnerRadius() + ", " +
                     "outer=" + (int) zone.getOuterRadius() + ", " +
-                    "weight=" + zone.getWeight());
+                    "weight=" + zone.getWeight() + ", " +
+                    "chunk-mode=" + zone.getChunkMode().getConfigName() + ", " +
+                    "pool=" + zone.getPool().size() + "/" + zone.getPool().getCapacity());
         }
     }
 
@@ -168,6 +190,243 @@ public class FFSpawnCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    private void handleMask(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(ChatColor.RED + "Usage: /ffs mask <zone> [reset]");
+            return;
+        }
+
+        SpawnZone zone = findZone(args[1]);
+        if (zone == null) {
+            sender.sendMessage(ChatColor.RED + "No zone found with name '" + args[1] + "'.");
+            return;
+        }
+        ZoneMask mask = zone.getMask();
+        if (mask == null) {
+            sender.sendMessage(ChatColor.YELLOW + "Zone masks are disabled.");
+            return;
+        }
+
+        if (args.length >= 3 && args[2].equalsIgnoreCase("reset")) {
+            mask.reset();
+            plugin.getConfigManager().saveMasks();
+            // Terrain may have changed without block events (e.g. world editors)
+            if (zone.getHeightCache() != null) {
+                zone.getHeightCache().clear();
+            }
+            sender.sendMessage(ChatColor.GREEN + "Mask and height cache of zone '" + zone.getName() + "' reset.");
+            return;
+        }
+
+        int ring = mask.getRingCells();
+        int allowed = mask.getAllowedCells();
+        sender.sendMessage(ChatColor.GOLD + "=== Mask: " + zone.getName() + " ===");
+        sender.sendMessage(ChatColor.YELLOW + "Allowed cells: " + ChatColor.WHITE + allowed + "/" + ring +
+                ChatColor.GRAY + String.format(" (%.1f%%)", ring > 0 ? allowed * 100.0 / ring : 0.0));
+    }
+
+    private void handleSurvey(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(ChatColor.RED + "Usage: /ffs survey <zone> [threads]");
+            return;
+        }
+
+        SpawnZone zone = findZone(args[1]);
+        if (zone == null) {
+            sender.sendMessage(ChatColor.RED + "No zone found with name '" + args[1] + "'.");
+            return;
+        }
+        World world = Bukkit.getWorld(zone.getWorldName());
+        if (world == null) {
+            sender.sendMessage(ChatColor.RED + "World '" + zone.getWorldName() + "' is not loaded.");
+            return;
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args.length >= 3) {
+            try {
+                threads = Math.max(1, Integer.parseInt(args[2]));
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ChatColor.RED + "Invalid thread count.");
+                return;
+            }
+        }
+        if (surveyRunning) {
+            sender.sendMessage(ChatColor.RED + "A survey is already running.");
+            return;
+        }
+
+        // Write loaded chunks out so the region files are current
+        world.save();
+
+        String zoneName = zone.getName();
+        Path output = plugin.getConfigManager().getSurveyFile(zone).toPath();
+        RegionSurveyor surveyor = new RegionSurveyor(getRegionFolder(world), zone.getCenterX(), zone.getCenterZ(),
+                zone.getInnerRadius(), zone.getOuterRadius());
+        int poolThreads = threads;
+
+        surveyRunning = true;
+        sender.sendMessage(ChatColor.YELLOW + "Surveying zone '" + zoneName + "' with " + threads + " thread(s)...");
+        plugin.getSchedulerAdapter().runAsync(() -> {
+            RegionSurveyor.Result result = null;
+            String error = null;
+            try {
+                result = surveyor.run(output, poolThreads);
+            } catch (IOException e) {
+                error = e.getMessage();
+                plugin.getLogger().warning("Survey of zone '" + zoneName + "' failed: " + e.getMessage());
+            }
+
+            RegionSurveyor.Result finalResult = result;
+            String finalError = error;
+            plugin.getSchedulerAdapter().run(() -> finishSurvey(sender, zoneName, output, finalResult, finalError));
+        });
+    }
+
+    private void handlePregen(CommandSender sender, String[] args) {
+        RingPregenerator pregenerator = plugin.getRingPregenerator();
+        if (args.length < 2) {
+            String status = pregenerator.describe();
+            sender.sendMessage(ChatColor.YELLOW + "Pre-generation: " + ChatColor.WHITE +
+                    (status != null ? status : "idle"));
+            return;
+        }
+
+        SpawnZone zone = findZone(args[1]);
+        if (zone == null) {
+            sender.sendMessage(ChatColor.RED + "No zone found with name '" + args[1] + "'.");
+            return;
+        }
+
+        if (args.length >= 3 && args[2].equalsIgnoreCase("stop")) {
+            SpawnZone running = pregenerator.getZone();
+            if (running == null || !running.getName().equals(zone.getName())) {
+                sender.sendMessage(ChatColor.RED + "Zone '" + zone.getName() + "' is not being pre-generated.");
+                return;
+            }
+            pregenerator.stop(true);
+            sender.sendMessage(ChatColor.GREEN + "Stopped pre-generation of zone '" + zone.getName() +
+                    "'. Run it again to continue where it left off.");
+            return;
+        }
+
+        World world = Bukkit.getWorld(zone.getWorldName());
+        if (world == null) {
+            sender.sendMessage(ChatColor.RED + "World '" + zone.getWorldName() + "' is not loaded.");
+            return;
+        }
+        if (!pregenerator.start(zone, world, sender)) {
+            sender.sendMessage(ChatColor.RED + "Pre-generation is already running: " + pregenerator.describe());
+            return;
+        }
+        sender.sendMessage(ChatColor.YELLOW + "Pre-generating zone '" + zone.getName() + "': " + pregenerator.describe());
+    }
+
+    /**
+     * Attach a freshly written survey to its zone and narrow the zone's mask to it.
+     */
+    private void finishSurvey(CommandSender sender, String zoneName, Path output,
+                              RegionSurveyor.Result result, String error) {
+        surveyRunning = false;
+        if (error != null) {
+            sender.sendMessage(ChatColor.RED + "Survey failed: " + error);
+            return;
+        }
+
+        // The zone may have been reloaded or removed meanwhile
+        SpawnZone zone = findZone(zoneName);
+        SurveyIndex survey;
+        try {
+            survey = SurveyIndex.open(output);
+        } catch (IOException e) {
+            sender.sendMessage(ChatColor.RED + "Failed to read survey: " + e.getMessage());
+            return;
+        }
+        if (zone == null || !survey.matches(zone.getCenterX(), zone.getCenterZ(),
+                zone.getInnerRadius(), zone.getOuterRadius())) {
+            sender.sendMessage(ChatColor.RED + "Zone '" + zoneName + "' changed during the survey; run it again.");
+            return;
+        }
+
+        plugin.getConfigManager().classifySurvey(survey);
+        zone.setSurvey(survey);
+
+        sender.sendMessage(ChatColor.GREEN + "Surveyed " + result.chunksSurveyed() + " chunk(s) of zone '" +
+                zoneName + "' in " + result.millis() + " ms.");
+        sender.sendMessage(ChatColor.YELLOW + "Usable columns: " + ChatColor.WHITE + survey.countUsable() +
+                ChatColor.GRAY + " (" + result.chunksSkipped() + " chunk(s) skipped, " +
+                result.regionsFailed() + " unreadable region(s))");
+
+        ZoneMask mask = zone.getMask();
+        if (mask != null) {
+            mask.applySurvey(survey);
+            plugin.getConfigManager().saveMasks();
+            sender.sendMessage(ChatColor.YELLOW + "Mask now allows " + ChatColor.WHITE + mask.getAllowedCells() +
+                    "/" + mask.getRingCells() + ChatColor.YELLOW + " cells.");
+        }
+    }
+
+    /**
+     * Folder holding a world's region files, which depends on the dimension.
+     */
+    private Path getRegionFolder(World world) {
+        Path folder = world.getWorldFolder().toPath();
+        return switch (world.getEnvironment()) {
+            case NETHER -> folder.resolve("DIM-1").resolve("region");
+            case THE_END -> folder.resolve("DIM1").resolve("region");
+            default -> folder.resolve("region");
+        };
+    }
+
+    private SpawnZone findZone(String name) {
+        return plugin.getConfigManager().getZone(name);
+    }
+
+    private void handleScatter(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            sender.sendMessage(ChatColor.RED + "Usage: /ffs scatter <zone> <players> [min-separation]");
+            return;
+        }
+
+        SpawnZone zone = findZone(args[1]);
+        if (zone == null) {
+            sender.sendMessage(ChatColor.RED + "No zone found with name '" + args[1] + "'.");
+            return;
+        }
+        if (zone.getWorld() == null) {
+            sender.sendMessage(ChatColor.RED + "World '" + zone.getWorldName() + "' is not loaded.");
+            return;
+        }
+
+        List<Player> players = new ArrayList<>();
+        try {
+            for (Entity entity : Bukkit.selectEntities(sender, args[2])) {
+                if (entity instanceof Player player) players.add(player);
+            }
+        } catch (IllegalArgumentException e) {
+            sender.sendMessage(ChatColor.RED + "Invalid player selector: " + e.getMessage());
+            return;
+        }
+        if (players.isEmpty()) {
+            sender.sendMessage(ChatColor.RED + "No players matched '" + args[2] + "'.");
+            return;
+        }
+
+        double minSeparation = 0;
+        if (args.length >= 4) {
+            try {
+                minSeparation = Math.max(0, Double.parseDouble(args[3]));
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ChatColor.RED + "Invalid minimum separation.");
+                return;
+            }
+        }
+
+        sender.sendMessage(ChatColor.YELLOW + "Scattering " + players.size() + " player(s) across zone '" +
+                zone.getName() + "'...");
+        new ScatterJob(plugin, sender, zone, players, minSeparation).start();
+    }
+
     private void handleTest(CommandSender sender, String[] args) {
         Player target;
 
@@ -189,28 +448,28 @@ public class FFSpawnCommand implements CommandExecutor, TabCompleter {
 
         sender.sendMessage(ChatColor.YELLOW + "Finding random spawn location...");
 
-        Location loc = plugin.getSpawnManager().findSpawnLocation(target);
-        if (loc != null) {
-            target.teleport(loc);
+        // Search and teleport asynchronously so the command never blocks the tick
+        plugin.getSpawnManager().teleportToRandomSpawnAsync(target).thenAccept(loc -> {
+            if (loc != null) {
+                String coords = String.format("%.0f, %.0f, %.0f", loc.getX(), loc.getY(), loc.getZ());
 
-            String coords = String.format("%.0f, %.0f, %.0f", loc.getX(), loc.getY(), loc.getZ());
+                if (target.equals(sender)) {
+                    sender.sendMessage(ChatColor.GREEN + "Teleported to random spawn: " + coords);
+                } else {
+                    sender.sendMessage(ChatColor.GREEN + "Teleported " + target.getName() + " to: " + coords);
+                    target.sendMessage(ChatColor.GREEN + "You were teleported to a random spawn location.");
+                }
 
-            if (target.equals(sender)) {
-                sender.sendMessage(ChatColor.GREEN + "Teleported to random spawn: " + coords);
+                // Show claim info to admin
+                if (plugin.getGPHook().isEnabled()) {
+                    boolean inClaim = plugin.getGPHook().isInAnyClaim(loc);
+                    sender.sendMessage(ChatColor.GRAY + "In claim: " + (inClaim ? "yes" : "no"));
+                }
             } else {
-                sender.sendMessage(ChatColor.GREEN + "Teleported " + target.getName() + " to: " + coords);
-                target.sendMessage(ChatColor.GREEN + "You were teleported to a random spawn location.");
+                sender.sendMessage(ChatColor.RED + "Failed to find valid spawn location after " +
+                        plugin.getConfigManager().getMaxAttempts() + " attempts.");
             }
-
-            // Show claim info to admin
-            if (plugin.getGPHook().isEnabled()) {
-                boolean inClaim = plugin.getGPHook().isInAnyClaim(loc);
-                sender.sendMessage(ChatColor.GRAY + "In claim: " + (inClaim ? "yes" : "no"));
-            }
-        } else {
-            sender.sendMessage(ChatColor.RED + "Failed to find valid spawn location after " +
-                    plugin.getConfigManager().getMaxAttempts() + " attempts.");
-        }
+        });
     }
 
     private void handleInfo(CommandSender sender) {
@@ -221,14 +480,62 @@ public class FFSpawnCommand implements CommandExecutor, TabCompleter {
                 plugin.getSpawnBlockManager().getSpawnBlockCount());
         sender.sendMessage(ChatColor.YELLOW + "Max attempts: " + ChatColor.WHITE +
                 plugin.getConfigManager().getMaxAttempts());
+        sender.sendMessage(ChatColor.YELLOW + "Location pool: " + ChatColor.WHITE +
+                (plugin.getConfigManager().isPoolEnabled()
+                        ? plugin.getConfigManager().getPoolSize() + " per zone" : "disabled"));
         sender.sendMessage(ChatColor.YELLOW + "GriefPrevention: " + ChatColor.WHITE +
                 (plugin.getGPHook().isEnabled() ? "enabled" : "disabled"));
+        ClaimIndex claimIndex = plugin.getGPHook().getClaimIndex();
+        if (claimIndex != null) {
+            sender.sendMessage(ChatColor.YELLOW + "Indexed claims: " + ChatColor.WHITE + claimIndex.getClaimCount());
+        }
         sender.sendMessage(ChatColor.YELLOW + "Require solid ground: " + ChatColor.WHITE +
                 plugin.getConfigManager().isRequireSolidGround());
         sender.sendMessage(ChatColor.YELLOW + "Y range: " + ChatColor.WHITE +
                 plugin.getConfigManager().getMinY() + " - " + plugin.getConfigManager().getMaxY());
     }
 
+    private void handleStats(CommandSender sender, String[] args) {
+        SpawnStats stats = plugin.getSpawnManager().getStats();
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            stats.reset();
+            plugin.getRespawnScheduler().resetStats();
+            sender.sendMessage(ChatColor.GREEN + "Spawn statistics reset.");
+            return;
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "=== FFSpawn Stats ===");
+        for (Map.Entry<String, Long> entry : stats.snapshot().entrySet()) {
+            sender.sendMessage(ChatColor.YELLOW + entry.getKey() + ": " + ChatColor.WHITE + entry.getValue());
+        }
+        for (SpawnZone zone : plugin.getConfigManager().getZones()) {
+            sender.sendMessage(ChatColor.YELLOW + "zone." + zone.getName() + ".chunk-rejects: " +
+                    ChatColor.WHITE + zone.getChunkRejects() +
+                    ChatColor.GRAY + " (" + zone.getChunkMode().getConfigName() + ")");
+            sender.sendMessage(ChatColor.YELLOW + "zone." + zone.getName() + ".mask-fallbacks: " +
+                    ChatColor.WHITE + zone.getMaskFallbacks());
+            sender.sendMessage(ChatColor.YELLOW + "zone." + zone.getName() + ".rules: " +
+                    ChatColor.WHITE + plugin.getSpawnManager().chainFor(zone).describe());
+        }
+        sender.sendMessage(ChatColor.YELLOW + "spawn-block.verify-queue: " + ChatColor.WHITE +
+                plugin.getSpawnBlockVerifier().getQueueSize());
+
+        RespawnScheduler scheduler = plugin.getRespawnScheduler();
+        long completed = stats.counter("respawn-queue.completed").sum();
+        sender.sendMessage(ChatColor.YELLOW + "respawn-queue.depth: " + ChatColor.WHITE + scheduler.getQueueSize() +
+                ChatColor.GRAY + " (" + scheduler.getRunning() + " running, oldest waiting " +
+                scheduler.getOldestWaitMillis() + " ms)");
+        sender.sendMessage(ChatColor.YELLOW + "respawn-queue.wait: " + ChatColor.WHITE +
+                (completed > 0 ? stats.counter("respawn-queue.wait-millis").sum() / completed : 0) + " ms avg, " +
+                scheduler.getMaxWaitMillis() + " ms max");
+        sender.sendMessage(ChatColor.YELLOW + "first-join.pending: " + ChatColor.WHITE +
+                plugin.getFirstJoinListener().getPendingCount() +
+                ChatColor.GRAY + " (" + plugin.getChunkTickets().size() + " chunk(s) pinned)");
+        sender.sendMessage(ChatColor.YELLOW + "prewarm.held: " + ChatColor.WHITE +
+                plugin.getChunkPrewarmer().getHeldCount() + ChatColor.GRAY + " / " +
+                plugin.getConfigManager().getPrewarmMaxChunks());
+    }
+
     private void handleListBlocks(CommandSender sender) {
         Collection<SpawnBlock> blocks = plugin.getSpawnBlockManager().getAllSpawnBlocks();
         if (blocks.isEmpty()) {
@@ -312,6 +619,60 @@ public class FFSpawnCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.GREEN + "Gave spawn block to " + target.getName());
     }
 
+    private void handleExportBlocks(CommandSender sender) {
+        File target = new File(plugin.getDataFolder(), "spawn-blocks-export.yml");
+        sender.sendMessage(ChatColor.YELLOW + "Exporting " + plugin.getSpawnBlockManager().getSpawnBlockCount() +
+                " spawn block(s)...");
+        plugin.getSpawnBlockManager().exportYaml(target, file -> {
+            if (file != null) {
+                sender.sendMessage(ChatColor.GREEN + "Exported spawn blocks to " + file.getPath());
+            } else {
+                sender.sendMessage(ChatColor.RED + "Export failed - see console for details.");
+            }
+        });
+    }
+
+    private void handleBench(CommandSender sender, String[] args) {
+        int eventsPerSecond = 1000;
+        if (args.length >= 2) {
+            try {
+                eventsPerSecond = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ChatColor.RED + "Invalid event rate.");
+                return;
+            }
+        }
+
+        World world;
+        int centerX;
+        int centerZ;
+        if (sender instanceof Player player) {
+            world = player.getWorld();
+            centerX = player.getLocation().getBlockX();
+            centerZ = player.getLocation().getBlockZ();
+        } else {
+            world = Bukkit.getWorlds().get(0);
+            centerX = world.getSpawnLocation().getBlockX();
+            centerZ = world.getSpawnLocation().getBlockZ();
+        }
+
+        if (benchRunning) {
+            sender.sendMessage(ChatColor.RED + "A benchmark is already running.");
+            return;
+        }
+
+        benchRunning = true;
+        sender.sendMessage(ChatColor.YELLOW + "Running spawn block benchmark...");
+        try {
+            new SpawnBlockBenchmark(plugin, plugin.getSpawnBlockManager()).run(sender, world, centerX, centerZ,
+                    eventsPerSecond, () -> benchRunning = false);
+        } catch (RuntimeException e) {
+            // Failed while setting up, before the measuring was handed off
+            benchRunning = false;
+            sender.sendMessage(ChatColor.RED + "Benchmark failed: " + e.getMessage());
+        }
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         List<String> completions = new ArrayList<>();
@@ -321,15 +682,17 @@ public class FFSpawnCommand implements CommandExecutor, TabCompleter {
         }
 
         if (args.length == 1) {
-            List<String> subcommands = Arrays.asList("reload", "list", "addzone", "removezone", "test", "info",
-                    "listblocks", "removeblock", "blockinfo", "giveblock");
+            List<String> subcommands = Arrays.asList("reload", "list", "addzone", "removezone", "mask", "survey", "pregen", "scatter", "test", "info", "stats",
+                    "listblocks", "removeblock", "blockinfo", "giveblock", "exportblocks", "bench");
             String partial = args[0].toLowerCase();
             for (String cmd : subcommands) {
                 if (cmd.startsWith(partial)) {
                     completions.add(cmd);
                 }
             }
-        } else if (args.length == 2 && args[0].equalsIgnoreCase("removezone")) {
+        } else if (args.length == 2 && (args[0].equalsIgnoreCase("removezone") || args[0].equalsIgnoreCase("mask")
+                || args[0].equalsIgnoreCase("survey") || args[0].equalsIgnoreCase("pregen")
+                || args[0].equalsIgnoreCase("scatter"))) {
             String partial = args[1].toLowerCase();
             for (SpawnZone zone : plugin.getConfigManager().getZones()) {
                 if (zone.getName().toLowerCase().startsWith(partial)) {
@@ -343,6 +706,32 @@ public class FFSpawnCommand implements CommandExecutor, TabCompleter {
                     completions.add(player.getName());
                 }
             }
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("mask")) {
+            if ("reset".startsWith(args[2].toLowerCase())) {
+                completions.add("reset");
+            }
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("scatter")) {
+            String partial = args[2].toLowerCase();
+            for (String selector : Arrays.asList("@a", "@r")) {
+                if (selector.startsWith(partial)) completions.add(selector);
+            }
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (player.getName().toLowerCase().startsWith(partial)) {
+                    completions.add(player.getName());
+                }
+            }
+        } else if (args.length == 4 && args[0].equalsIgnoreCase("scatter")) {
+            for (String distance : Arrays.asList("16", "32", "64", "128")) {
+                if (distance.startsWith(args[3])) completions.add(distance);
+            }
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("pregen")) {
+            if ("stop".startsWith(args[2].toLowerCase())) {
+                completions.add("stop");
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("stats")) {
+            if ("reset".startsWith(args[1].toLowerCase())) {
+                completions.add("reset");
+            }
         } else if (args.length == 2 && args[0].equalsIgnoreCase("addzone")) {
             completions.add("<name>");
         } else if (args.length == 3 && args[0].equalsIgnoreCase("addzone")) {
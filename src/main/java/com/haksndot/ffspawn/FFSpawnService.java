@@ -0,0 +1,159 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spawn search for other plugins, registered in the Bukkit {@code ServicesManager}:
+ * <pre>
+ * FFSpawnService spawns = Bukkit.getServicesManager().load(FFSpawnService.class);
+ * spawns.findSpawn(player, SpawnRequestOptions.inZone("arena")).thenAccept(...);
+ * </pre>
+ * Requests share the plugin's pools, height caches, masks and rules, and run like an
+ * asynchronous respawn search over asynchronously loaded chunks. Methods may be called from any
+ * thread; the search starts on the main (global region) thread. Futures complete on the main
+ * thread, or on Folia on the thread of the region the location was checked in, so callers
+ * should switch to the player's scheduler before using the player. The service is unregistered
+ * when the plugin is disabled.
+ */
+public class FFSpawnService {
+
+    // Searches of one batch running at once, so a large batch doesn't load every chunk together
+    private static final int BATCH_CONCURRENCY = 8;
+
+    private final FFSpawn plugin;
+    private final SpawnManager spawnManager;
+    private final LongAdder requests;
+    private final LongAdder pooled;
+
+    public FFSpawnService(FFSpawn plugin, SpawnManager spawnManager) {
+        this.plugin = plugin;
+        this.spawnManager = spawnManager;
+        this.requests = spawnManager.getStats().counter("api.requests");
+        this.pooled = spawnManager.getStats().counter("api.pooled");
+    }
+
+    /**
+     * Find a spawn location. Completes with null if none was found, or exceptionally if the
+     * search failed.
+     *
+     * @param player The player who would spawn there, for claim trust and player rules, or null
+     */
+    public CompletableFuture<Location> findSpawn(Player player, SpawnRequestOptions options) {
+        CompletableFuture<Location> result = new CompletableFuture<>();
+        plugin.getSchedulerAdapter().run(() -> search(player, options).whenComplete((loc, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(loc);
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * Find a spawn location for each player, in the same order; an entry is null where no
+     * location was found or its search failed. Players may be null. At most a few searches run
+     * at once.
+     */
+    public CompletableFuture<List<Location>> findSpawns(List<Player> players, SpawnRequestOptions options) {
+        Location[] found = new Location[players.size()];
+        CompletableFuture<List<Location>> result = new CompletableFuture<>();
+        if (players.isEmpty()) {
+            result.complete(new ArrayList<>());
+            return result;
+        }
+
+        Batch batch = new Batch(players, options, found, result);
+        plugin.getSchedulerAdapter().run(() -> {
+            for (int i = 0; i < Math.min(BATCH_CONCURRENCY, players.size()); i++) {
+                batch.next();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Add a rule every zone candidate must pass, also in respawn searches.
+     */
+    public void registerRule(SpawnRule rule) {
+        spawnManager.registerRule(rule);
+    }
+
+    public void unregisterRule(SpawnRule rule) {
+        spawnManager.unregisterRule(rule);
+    }
+
+    /**
+     * Names of the configured zones, for {@link SpawnRequestOptions#inZone}.
+     */
+    public List<String> getZoneNames() {
+        List<String> names = new ArrayList<>();
+        for (SpawnZone zone : plugin.getConfigManager().getZones()) {
+            names.add(zone.getName());
+        }
+        return names;
+    }
+
+    /**
+     * A ready pooled location if the options allow one, otherwise a search. Main thread only.
+     */
+    private CompletableFuture<Location> search(Player player, SpawnRequestOptions options) {
+        requests.increment();
+        try {
+            Location loc = spawnManager.findPooledLocation(player, options);
+            if (loc != null) {
+                pooled.increment();
+                return CompletableFuture.completedFuture(loc);
+            }
+            return spawnManager.findSpawnLocationAsync(player, options);
+        } catch (RuntimeException e) {
+            // A rule or hook that throws fails this request instead of leaving it pending
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Searches of one {@link #findSpawns} call. Each finished search starts the next one on the
+     * main thread.
+     */
+    private final class Batch {
+        final List<Player> players;
+        final SpawnRequestOptions options;
+        final Location[] found;
+        final CompletableFuture<List<Location>> result;
+        int started;
+        int finished;
+
+        Batch(List<Player> players, SpawnRequestOptions options, Location[] found,
+              CompletableFuture<List<Location>> result) {
+            this.players = players;
+            this.options = options;
+            this.found = found;
+            this.result = result;
+        }
+
+        synchronized void next() {
+            if (started >= players.size()) return;
+            int index = started++;
+            search(players.get(index), options).whenComplete((loc, error) -> {
+                if (done(index, error == null ? loc : null)) {
+                    result.complete(Arrays.asList(found));
+                } else {
+                    plugin.getSchedulerAdapter().run(this::next);
+                }
+            });
+        }
+
+        private synchronized boolean done(int index, Location loc) {
+            found[index] = loc;
+            return ++finished == players.size();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.spigotmc.event.player.PlayerSpawnLocationEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Random spawn for players joining for the first time.
+ * <p>
+ * The search starts in {@link AsyncPlayerPreLoginEvent}, while the login is still handled off
+ * the main thread. It runs like an asynchronous respawn search, and the chunk it settles on is
+ * loaded in the background and pinned with a plugin chunk ticket until the player has joined.
+ * The pre-login thread waits up to {@code first-join.max-wait-millis} for the result, so the
+ * join itself only applies a finished location. If the search is still running at the join,
+ * a pooled location is used if one is ready, otherwise the player is moved once the search
+ * finishes.
+ */
+public class FirstJoinListener implements Listener {
+
+    private final FFSpawn plugin;
+    private final ConfigManager config;
+    private final SpawnManager spawnManager;
+    private final ChunkTickets tickets;
+    private final Map<UUID, CompletableFuture<Location>> pending = new ConcurrentHashMap<>();
+    private final LongAdder searches;
+    private final LongAdder ready;
+    private final LongAdder pooled;
+    private final LongAdder late;
+    private final LongAdder expired;
+
+    public FirstJoinListener(FFSpawn plugin, ConfigManager config, SpawnManager spawnManager, ChunkTickets tickets) {
+        this.plugin = plugin;
+        this.config = config;
+        this.spawnManager = spawnManager;
+        this.tickets = tickets;
+        SpawnStats stats = spawnManager.getStats();
+        this.searches = stats.counter("first-join.searches");
+        this.ready = stats.counter("first-join.ready");
+        this.pooled = stats.counter("first-join.pooled");
+        this.late = stats.counter("first-join.late");
+        this.expired = stats.counter("first-join.expired");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (!config.isFirstJoinEnabled() || event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+
+        UUID uuid = event.getUniqueId();
+        if (plugin.getServer().getOfflinePlayer(uuid).hasPlayedBefore()) return;
+
+        CompletableFuture<Location> search = new CompletableFuture<>();
+        // A quick reconnect keeps the search already running
+        if (pending.putIfAbsent(uuid, search) != null) return;
+        searches.increment();
+
+        SchedulerAdapter scheduler = plugin.getSchedulerAdapter();
+        scheduler.run(() -> spawnManager.findSpawnLocationAsync(null).whenComplete((loc, error) -> {
+            if (error == null && loc != null) {
+                // A cached location's chunk may not be loaded; finish once it is, so the join
+                // doesn't load it on the main thread
+                int chunkX = loc.getBlockX() >> 4;
+                int chunkZ = loc.getBlockZ() >> 4;
+                tickets.acquire(loc.getWorld(), chunkX, chunkZ);
+                loc.getWorld().getChunkAtAsync(chunkX, chunkZ).whenComplete((chunk, e) -> search.complete(loc));
+            } else {
+                search.complete(null);
+            }
+        }));
+        // Let go if the player never joins, e.g. the connection dropped during login
+        scheduler.runLater(() -> {
+            if (pending.remove(uuid, search)) {
+                expired.increment();
+                release(search);
+            }
+        }, config.getFirstJoinExpireSeconds() * 20L);
+
+        try {
+            search.get(config.getFirstJoinMaxWaitMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Still running; the join falls back
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onSpawnLocation(PlayerSpawnLocationEvent event) {
+        Player player = event.getPlayer();
+        CompletableFuture<Location> search = pending.get(player.getUniqueId());
+        if (search == null) return;
+
+        Location loc = search.getNow(null);
+        if (loc != null) {
+            event.setSpawnLocation(loc);
+            ready.increment();
+            return;
+        }
+        // Nothing was found: keep the world spawn
+        if (search.isDone()) return;
+
+        Location pooledLoc = spawnManager.findPooledLocation(player);
+        if (pooledLoc != null && pending.remove(player.getUniqueId(), search)) {
+            event.setSpawnLocation(pooledLoc);
+            pooled.increment();
+            release(search);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        CompletableFuture<Location> search = pending.remove(player.getUniqueId());
+        if (search == null) return;
+
+        if (search.isDone()) {
+            // The player is in the chunk now and keeps it loaded
+            release(search);
+            return;
+        }
+
+        // Joined before the search finished: move the player once it does
+        late.increment();
+        search.thenAcceptAsync(loc -> {
+            if (loc == null) return;
+            if (!player.isOnline()) {
+                release(search);
+                return;
+            }
+            player.teleportAsync(loc).whenComplete((moved, error) -> release(search));
+        }, plugin.getSchedulerAdapter().forEntity(player));
+    }
+
+    /**
+     * Searches started at pre-login whose player hasn't joined yet.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void release(CompletableFuture<Location> search) {
+        search.thenAccept(loc -> {
+            if (loc != null) {
+                tickets.release(loc.getWorld(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+            }
+        });
+    }
+}
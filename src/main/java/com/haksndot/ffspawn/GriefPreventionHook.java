@@ -3,21 +3,36 @@ package com.haksndot.ffspawn;
 import me.ryanhamshire.GriefPrevention.Claim;
 import me.ryanhamshire.GriefPrevention.GriefPrevention;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
 /**
  * Hooks into GriefPrevention to check if spawn locations are inside claims.
  * Gracefully handles GriefPrevention not being installed.
+ * <p>
+ * Lookups inside spawn zones are answered from a {@link ClaimIndex} snapshot, rebuilt on the
+ * main thread when claims change; only candidates in someone else's claim still ask
+ * GriefPrevention, to check trust. GriefPrevention's data store isn't safe to read from Folia's
+ * region threads, so on Folia the index is always built and the hook never asks
+ * GriefPrevention during a search: candidates the index can't clear count as claimed.
  */
 public class GriefPreventionHook {
 
     private final FFSpawn plugin;
+    private final boolean folia;
     private boolean enabled;
     private GriefPrevention griefPrevention;
+    private volatile ClaimIndex claimIndex;
+    private boolean rebuildScheduled;
 
     public GriefPreventionHook(FFSpawn plugin) {
         this.plugin = plugin;
+        this.folia = plugin.getSchedulerAdapter().isFolia();
         this.enabled = false;
 
         try {
@@ -30,6 +45,9 @@ public class GriefPreventionHook {
             plugin.getLogger().warning("Failed to hook into GriefPrevention: " + e.getMessage());
             enabled = false;
         }
+        if (enabled && folia && !plugin.getConfigManager().isClaimIndexEnabled()) {
+            plugin.getLogger().warning("claim-index is required on Folia and stays enabled.");
+        }
     }
 
     /**
@@ -39,6 +57,61 @@ public class GriefPreventionHook {
         return enabled;
     }
 
+    /**
+     * Current claim snapshot, or null if GriefPrevention is missing or the index is disabled.
+     * Safe to read from any thread.
+     */
+    public ClaimIndex getClaimIndex() {
+        return claimIndex;
+    }
+
+    /**
+     * Rebuild the claim snapshot from GriefPrevention's claims. Main thread only.
+     */
+    public void rebuildClaimIndex() {
+        rebuildScheduled = false;
+        if (!enabled || griefPrevention == null || !(folia || plugin.getConfigManager().isClaimIndexEnabled())) {
+            claimIndex = null;
+            return;
+        }
+
+        try {
+            List<ClaimIndex.ClaimRect> rects = new ArrayList<>();
+            for (Claim claim : griefPrevention.dataStore.getClaims()) {
+                Location lesser = claim.getLesserBoundaryCorner();
+                Location greater = claim.getGreaterBoundaryCorner();
+                World world = lesser.getWorld();
+                if (world == null) continue;
+                rects.add(new ClaimIndex.ClaimRect(world.getName(), lesser.getBlockX(), lesser.getBlockZ(),
+                        greater.getBlockX(), greater.getBlockZ(), claim.ownerID));
+            }
+            claimIndex = new ClaimIndex(plugin.getConfigManager().getZones(), rects);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to index GriefPrevention claims: " + e.getMessage());
+            claimIndex = null;
+        }
+    }
+
+    /**
+     * Rebuild the claim snapshot on the next tick, once GriefPrevention has applied the change
+     * that triggered the request. Repeated requests within a tick are merged.
+     */
+    public void requestClaimIndexRebuild() {
+        if (!enabled || rebuildScheduled) return;
+        rebuildScheduled = true;
+        plugin.getSchedulerAdapter().run(this::rebuildClaimIndex);
+    }
+
+    /**
+     * Snapshot-only check, safe from any thread and free of world access.
+     * Returns true only if the column is certainly unavailable: inside an indexed zone, in a
+     * claim not owned by the player, and with no player whose trust could be checked.
+     */
+    public boolean isClaimedFor(String worldName, int x, int z, UUID player) {
+        ClaimIndex index = claimIndex;
+        return index != null && player == null && index.query(worldName, x, z, null) == ClaimIndex.Result.OTHER;
+    }
+
     /**
      * Check if a location is inside a claim that doesn't belong to the player.
      *
@@ -47,9 +120,41 @@ public class GriefPreventionHook {
      * @return true if the location is in another player's claim
      */
     public boolean isInClaim(Location location, Player player) {
+        if (location.getWorld() == null) {
+            return isInClaimLive(location, player);
+        }
+        return isInClaim(location.getWorld(), location.getBlockX(), location.getBlockZ(), player);
+    }
+
+    /**
+     * Column variant of {@link #isInClaim(Location, Player)}. A location is only created when
+     * the snapshot can't answer and GriefPrevention has to be asked.
+     */
+    public boolean isInClaim(World world, int x, int z, Player player) {
+        if (!enabled || griefPrevention == null) {
+            return false;
+        }
+
+        ClaimIndex index = claimIndex;
+        if (index != null) {
+            ClaimIndex.Result result = index.query(world.getName(), x, z,
+                    player != null ? player.getUniqueId() : null);
+            if (result == ClaimIndex.Result.FREE || result == ClaimIndex.Result.OWN) return false;
+            if (result == ClaimIndex.Result.OTHER && player == null) return true;
+            // Someone else's claim: fall through to check trust
+        }
+
+        return isInClaimLive(new Location(world, x, 0, z), player);
+    }
+
+    private boolean isInClaimLive(Location location, Player player) {
         if (!enabled || griefPrevention == null) {
             return false;
         }
+        if (folia) {
+            // Not from a region thread; whatever the snapshot couldn't clear stays blocked
+            return true;
+        }
 
         try {
             Claim claim = griefPrevention.dataStore.getClaimAt(location, true, null);
@@ -96,12 +201,20 @@ public class GriefPreventionHook {
     }
 
     /**
-     * Check if a location is inside any claim at all.
+     * Check if a location is inside any claim at all. On Folia only claims overlapping a spawn
+     * zone are known.
      */
     public boolean isInAnyClaim(Location location) {
         if (!enabled || griefPrevention == null) {
             return false;
         }
+        if (folia) {
+            ClaimIndex index = claimIndex;
+            if (index == null || location.getWorld() == null) return false;
+            ClaimIndex.Result result = index.query(location.getWorld().getName(),
+                    location.getBlockX(), location.getBlockZ(), null);
+            return result == ClaimIndex.Result.OWN || result == ClaimIndex.Result.OTHER;
+        }
 
         try {
             Claim claim = griefPrevention.dataStore.getClaimAt(location, true, null);
@@ -0,0 +1,220 @@
+package com.haksndot.ffspawn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Persistent per-zone cache of terrain verdicts, memory-mapped from disk.
+ * <p>
+ * The zone's bounding box is split into square cells of {@code 2^shift} blocks, aligned to the
+ * chunk grid, with one short per cell: 0 while unknown, 1 when the cell's anchor column was found
+ * unsafe, or the feet Y of the safe spot plus {@link #SAFE_BASE}. Candidates are snapped to their
+ * cell's anchor (its center column) so a cached entry is exact for the column it describes.
+ * A safe entry only stands in for the surface search: the spot's blocks are re-checked before
+ * it is used, since not every change to the world raises an event. An unsafe entry is trusted
+ * until its chunk changes.
+ * <p>
+ * The header records the ring and a hash of the safety settings; if either changed, the cache
+ * starts out empty. Entries are written straight into the mapping and reach the disk through
+ * the OS or {@link #flush()}. Every access is an absolute read or write of one short, so the
+ * cache can be used from several region threads on Folia; a racing update only loses a verdict.
+ */
+public class HeightCache {
+
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+    public static final int UNSAFE = Integer.MIN_VALUE + 1;
+
+    private static final int MAGIC = 0x46464843; // "FFHC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final short EMPTY = 0;
+    private static final short UNSAFE_VALUE = 1;
+    private static final int SAFE_BASE = 16384;
+
+    private final String worldName;
+    private final double centerX;
+    private final double centerZ;
+    private final double innerRadius;
+    private final double outerRadius;
+    private final int shift;
+    private final int originX;
+    private final int originZ;
+    private final int width;
+    private final int height;
+    private final MappedByteBuffer buffer;
+
+    private HeightCache(SpawnZone zone, int shift, MappedByteBuffer buffer, int originX, int originZ,
+                        int width, int height) {
+        this.worldName = zone.getWorldName();
+        this.centerX = zone.getCenterX();
+        this.centerZ = zone.getCenterZ();
+        this.innerRadius = zone.getInnerRadius();
+        this.outerRadius = zone.getOuterRadius();
+        this.shift = shift;
+        this.buffer = buffer;
+        this.originX = originX;
+        this.originZ = originZ;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Open or create the cache file of a zone.
+     *
+     * @param shift        Cell size as a power of two (0-4, i.e. 1 to 16 blocks)
+     * @param settingsHash Hash of the safety settings the entries were computed with
+     */
+    public static HeightCache open(SpawnZone zone, File file, int shift, int settingsHash) throws IOException {
+        int minChunkX = (int) Math.floor(zone.getCenterX() - zone.getOuterRadius()) >> 4;
+        int minChunkZ = (int) Math.floor(zone.getCenterZ() - zone.getOuterRadius()) >> 4;
+        int maxChunkX = (int) Math.floor(zone.getCenterX() + zone.getOuterRadius()) >> 4;
+        int maxChunkZ = (int) Math.floor(zone.getCenterZ() + zone.getOuterRadius()) >> 4;
+        int width = (maxChunkX - minChunkX + 1) << (4 - shift);
+        int height = (maxChunkZ - minChunkZ + 1) << (4 - shift);
+        long size = HEADER_SIZE + (long) width * height * 2;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Zone too large for a height cache at this resolution");
+        }
+
+        File parent = file.getParentFile();
+        if (parent != null) parent.mkdirs();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            boolean valid = raf.length() == size && readHeaderMatches(raf, zone, shift, settingsHash);
+            if (!valid) {
+                // New file, or the zone or safety settings changed: start empty
+                raf.setLength(0);
+                raf.setLength(size);
+            }
+
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (!valid) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putDouble(8, zone.getCenterX());
+                buffer.putDouble(16, zone.getCenterZ());
+                buffer.putDouble(24, zone.getInnerRadius());
+                buffer.putDouble(32, zone.getOuterRadius());
+                buffer.putInt(40, shift);
+                buffer.putInt(44, settingsHash);
+            }
+            return new HeightCache(zone, shift, buffer, minChunkX << 4, minChunkZ << 4, width, height);
+        }
+    }
+
+    private static boolean readHeaderMatches(RandomAccessFile raf, SpawnZone zone, int shift, int settingsHash)
+            throws IOException {
+        raf.seek(0);
+        return raf.readInt() == MAGIC && raf.readInt() == VERSION
+                && raf.readDouble() == zone.getCenterX() && raf.readDouble() == zone.getCenterZ()
+                && raf.readDouble() == zone.getInnerRadius() && raf.readDouble() == zone.getOuterRadius()
+                && raf.readInt() == shift && raf.readInt() == settingsHash;
+    }
+
+    /**
+     * Cell holding a block column, or -1 if the column is outside the cache or the cell's
+     * anchor falls outside the ring.
+     */
+    public int cellAt(int x, int z) {
+        int cx = (x - originX) >> shift;
+        int cz = (z - originZ) >> shift;
+        if (x < originX || z < originZ || cx >= width || cz >= height) return -1;
+        int cell = cz * width + cx;
+        return inRing(anchorX(cell) + 0.5, anchorZ(cell) + 0.5) ? cell : -1;
+    }
+
+    /**
+     * Block X of the column a cell's entry describes.
+     */
+    public int anchorX(int cell) {
+        return originX + ((cell % width) << shift) + ((1 << shift) >> 1);
+    }
+
+    public int anchorZ(int cell) {
+        return originZ + ((cell / width) << shift) + ((1 << shift) >> 1);
+    }
+
+    /**
+     * Cached feet Y of the cell's safe spot, or {@link #UNKNOWN} / {@link #UNSAFE}.
+     */
+    public int get(int cell) {
+        short value = buffer.getShort(HEADER_SIZE + cell * 2);
+        if (value == EMPTY) return UNKNOWN;
+        if (value == UNSAFE_VALUE) return UNSAFE;
+        return value - SAFE_BASE;
+    }
+
+    /**
+     * Find a cell with a safe entry, scanning at most {@code limit} cells from {@code start}
+     * onwards (wrapping around). Returns -1 if none was found.
+     */
+    public int findSafe(int start, int limit) {
+        int cells = getCellCount();
+        int cell = Math.floorMod(start, cells);
+        for (int i = 0; i < Math.min(limit, cells); i++) {
+            short value = buffer.getShort(HEADER_SIZE + cell * 2);
+            if (value != EMPTY && value != UNSAFE_VALUE) return cell;
+            if (++cell == cells) cell = 0;
+        }
+        return -1;
+    }
+
+    public int getCellCount() {
+        return width * height;
+    }
+
+    public void putSafe(int cell, int feetY) {
+        buffer.putShort(HEADER_SIZE + cell * 2, (short) (feetY + SAFE_BASE));
+    }
+
+    public void putUnsafe(int cell) {
+        buffer.putShort(HEADER_SIZE + cell * 2, UNSAFE_VALUE);
+    }
+
+    /**
+     * Forget every entry in a chunk, e.g. after a block in it changed.
+     */
+    public void invalidateChunk(String world, int chunkX, int chunkZ) {
+        int cx0 = ((chunkX << 4) - originX) >> shift;
+        int cz0 = ((chunkZ << 4) - originZ) >> shift;
+        if ((chunkX << 4) < originX || (chunkZ << 4) < originZ || cx0 >= width || cz0 >= height
+                || !worldName.equals(world)) {
+            return;
+        }
+
+        int side = 16 >> shift;
+        for (int cz = cz0; cz < cz0 + side; cz++) {
+            for (int cx = cx0; cx < cx0 + side; cx++) {
+                int offset = HEADER_SIZE + (cz * width + cx) * 2;
+                // Only touch pages that hold entries
+                if (buffer.getShort(offset) != EMPTY) buffer.putShort(offset, EMPTY);
+            }
+        }
+    }
+
+    /**
+     * Forget every entry.
+     */
+    public void clear() {
+        for (int offset = HEADER_SIZE; offset < buffer.capacity(); offset += 2) {
+            if (buffer.getShort(offset) != EMPTY) buffer.putShort(offset, EMPTY);
+        }
+    }
+
+    /**
+     * Write modified entries to disk.
+     */
+    public void flush() {
+        buffer.force();
+    }
+
+    private boolean inRing(double x, double z) {
+        double dx = x - centerX;
+        double dz = z - centerZ;
+        double d2 = dx * dx + dz * dz;
+        return d2 >= innerRadius * innerRadius && d2 <= outerRadius * outerRadius;
+    }
+}
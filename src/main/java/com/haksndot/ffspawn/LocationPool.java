@@ -0,0 +1,120 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.Location;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A bounded pool of spawn locations that were validated ahead of time.
+ * Newest entries are handed out first; entries older than the max age are dropped.
+ * All methods are synchronized so the pool can be filled and drained from different threads.
+ */
+public class LocationPool {
+
+    private final ArrayDeque<PooledLocation> entries = new ArrayDeque<>();
+    private int capacity;
+
+    public LocationPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Add a validated location to the pool.
+     *
+     * @return false if the pool is already full
+     */
+    public synchronized boolean offer(Location location) {
+        if (entries.size() >= capacity) {
+            return false;
+        }
+        entries.addLast(new PooledLocation(location, System.currentTimeMillis()));
+        return true;
+    }
+
+    /**
+     * Take the most recently validated location, or null if none is younger than maxAgeMillis.
+     */
+    public synchronized Location poll(long maxAgeMillis) {
+        PooledLocation entry = entries.pollLast();
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.validatedAt > maxAgeMillis) {
+            // Everything behind this entry is older still
+            entries.clear();
+            return null;
+        }
+        return entry.location;
+    }
+
+    /**
+     * Take the most recently validated location that matches a filter, leaving the others in
+     * the pool, or null if no matching one is younger than maxAgeMillis.
+     */
+    public synchronized Location poll(long maxAgeMillis, Predicate<Location> filter) {
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        Iterator<PooledLocation> it = entries.descendingIterator();
+        while (it.hasNext()) {
+            PooledLocation entry = it.next();
+            if (entry.validatedAt < cutoff) {
+                break;
+            }
+            if (filter.test(entry.location)) {
+                it.remove();
+                return entry.location;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The newest locations, which are handed out next, without taking them.
+     */
+    public synchronized List<Location> peek(int count) {
+        List<Location> result = new ArrayList<>(Math.min(count, entries.size()));
+        Iterator<PooledLocation> it = entries.descendingIterator();
+        while (it.hasNext() && result.size() < count) {
+            result.add(it.next().location);
+        }
+        return result;
+    }
+
+    /**
+     * Drop entries older than maxAgeMillis.
+     */
+    public synchronized void evictExpired(long maxAgeMillis) {
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        while (!entries.isEmpty() && entries.peekFirst().validatedAt < cutoff) {
+            entries.pollFirst();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized void setCapacity(int capacity) {
+        this.capacity = capacity;
+        while (entries.size() > capacity) {
+            entries.pollFirst();
+        }
+    }
+
+    public synchronized boolean isFull() {
+        return entries.size() >= capacity;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private record PooledLocation(Location location, long validatedAt) {}
+}
@@ -0,0 +1,188 @@
+package com.haksndot.ffspawn;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to int values.
+ * Uses linear probing with backward-shift deletion, so lookups never allocate and
+ * there are no tombstones to clean up. Absent keys map to {@link #MISSING}.
+ */
+public class LongIntHashMap {
+
+    public static final int MISSING = -1;
+
+    // Marks a free slot; the key itself is stored out of line if it is ever used
+    private static final long FREE = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int get(long key) {
+        if (key == FREE) {
+            return hasFreeKey ? freeKeyValue : MISSING;
+        }
+
+        int slot = mix(key) & mask;
+        while (true) {
+            long k = keys[slot];
+            if (k == FREE) return MISSING;
+            if (k == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    /**
+     * Associate a value with the key.
+     *
+     * @return the previous value, or {@link #MISSING}
+     */
+    public int put(long key, int value) {
+        if (key == FREE) {
+            int previous = hasFreeKey ? freeKeyValue : MISSING;
+            if (!hasFreeKey) size++;
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return previous;
+        }
+
+        int slot = mix(key) & mask;
+        while (true) {
+            long k = keys[slot];
+            if (k == FREE) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size >= resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return MISSING;
+            }
+            if (k == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Remove the key.
+     *
+     * @return the removed value, or {@link #MISSING}
+     */
+    public int remove(long key) {
+        if (key == FREE) {
+            if (!hasFreeKey) return MISSING;
+            hasFreeKey = false;
+            size--;
+            return freeKeyValue;
+        }
+
+        int slot = mix(key) & mask;
+        while (true) {
+            long k = keys[slot];
+            if (k == FREE) return MISSING;
+            if (k == key) {
+                int removed = values[slot];
+                shiftKeys(slot);
+                size--;
+                return removed;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+        hasFreeKey = false;
+    }
+
+    /**
+     * Close the gap left at the given slot by moving later entries of the same probe run back.
+     */
+    private void shiftKeys(int slot) {
+        while (true) {
+            int last = slot;
+            slot = (slot + 1) & mask;
+            long k;
+            while (true) {
+                k = keys[slot];
+                if (k == FREE) {
+                    keys[last] = FREE;
+                    return;
+                }
+                int home = mix(k) & mask;
+                // Move the entry back unless its home lies cyclically in (last, slot]
+                if (last <= slot ? (last >= home || home > slot) : (last >= home && home > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = k;
+            values[last] = values[slot];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if (k == FREE) continue;
+            int slot = mix(k) & mask;
+            while (keys[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = k;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = Math.max(1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    private static int mix(long key) {
+        // Finalizer from MurmurHash3 - spreads packed coordinates across all bits
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
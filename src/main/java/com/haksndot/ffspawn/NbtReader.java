@@ -0,0 +1,156 @@
+package com.haksndot.ffspawn;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal reader for Minecraft's binary NBT format.
+ * Compounds become {@code Map<String, Object>}, lists become {@code List<Object>}, arrays stay
+ * primitive arrays and everything else is boxed. Used by the region surveyor, so it must not
+ * depend on the server API.
+ */
+public final class NbtReader {
+
+    private static final int TAG_END = 0;
+    private static final int TAG_BYTE = 1;
+    private static final int TAG_SHORT = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_LONG = 4;
+    private static final int TAG_FLOAT = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_BYTE_ARRAY = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_LIST = 9;
+    private static final int TAG_COMPOUND = 10;
+    private static final int TAG_INT_ARRAY = 11;
+    private static final int TAG_LONG_ARRAY = 12;
+
+    // Guards against corrupt data describing absurd nesting or sizes
+    private static final int MAX_DEPTH = 512;
+    private static final int MAX_ARRAY_LENGTH = 16 * 1024 * 1024;
+
+    private NbtReader() {
+    }
+
+    /**
+     * Read a named root compound, as stored in region files.
+     */
+    public static Map<String, Object> readRoot(DataInput in) throws IOException {
+        int type = in.readUnsignedByte();
+        if (type != TAG_COMPOUND) {
+            throw new IOException("Root tag is not a compound: " + type);
+        }
+        in.readUTF();
+        return readCompound(in, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> compound(Map<String, Object> parent, String key) {
+        Object value = parent.get(key);
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<Object> list(Map<String, Object> parent, String key) {
+        Object value = parent.get(key);
+        return value instanceof List ? (List<Object>) value : null;
+    }
+
+    public static long[] longArray(Map<String, Object> parent, String key) {
+        Object value = parent.get(key);
+        return value instanceof long[] array ? array : null;
+    }
+
+    public static String string(Map<String, Object> parent, String key) {
+        Object value = parent.get(key);
+        return value instanceof String s ? s : null;
+    }
+
+    /**
+     * Numeric tag as an int, or the fallback if missing.
+     */
+    public static int intValue(Map<String, Object> parent, String key, int fallback) {
+        Object value = parent.get(key);
+        return value instanceof Number n ? n.intValue() : fallback;
+    }
+
+    private static Map<String, Object> readCompound(DataInput in, int depth) throws IOException {
+        checkDepth(depth);
+        Map<String, Object> map = new HashMap<>();
+        while (true) {
+            int type = in.readUnsignedByte();
+            if (type == TAG_END) return map;
+            String name = in.readUTF();
+            map.put(name, readPayload(in, type, depth + 1));
+        }
+    }
+
+    private static Object readPayload(DataInput in, int type, int depth) throws IOException {
+        switch (type) {
+            case TAG_BYTE:
+                return in.readByte();
+            case TAG_SHORT:
+                return in.readShort();
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_FLOAT:
+                return in.readFloat();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_BYTE_ARRAY: {
+                byte[] array = new byte[checkLength(in.readInt())];
+                in.readFully(array);
+                return array;
+            }
+            case TAG_STRING:
+                return in.readUTF();
+            case TAG_LIST: {
+                checkDepth(depth);
+                int elementType = in.readUnsignedByte();
+                int length = checkLength(in.readInt());
+                List<Object> list = new ArrayList<>(Math.min(length, 1024));
+                for (int i = 0; i < length; i++) {
+                    list.add(readPayload(in, elementType, depth + 1));
+                }
+                return list;
+            }
+            case TAG_COMPOUND:
+                return readCompound(in, depth);
+            case TAG_INT_ARRAY: {
+                int[] array = new int[checkLength(in.readInt())];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = in.readInt();
+                }
+                return array;
+            }
+            case TAG_LONG_ARRAY: {
+                long[] array = new long[checkLength(in.readInt())];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = in.readLong();
+                }
+                return array;
+            }
+            default:
+                throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    private static void checkDepth(int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("NBT nested too deeply");
+        }
+    }
+
+    private static int checkLength(int length) throws IOException {
+        if (length < 0 || length > MAX_ARRAY_LENGTH) {
+            throw new IOException("Invalid NBT length " + length);
+        }
+        return length;
+    }
+}
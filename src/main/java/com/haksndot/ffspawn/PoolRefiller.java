@@ -0,0 +1,81 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background task that keeps each zone's {@link LocationPool} topped up.
+ * Candidate chunks are loaded with Paper's async chunk API, and validation runs
+ * once the chunk is available, so the main thread never waits on chunk I/O or generation.
+ * On Folia, validation runs on the thread of the region owning the chunk.
+ */
+public class PoolRefiller implements Runnable {
+
+    private final FFSpawn plugin;
+    private final ConfigManager config;
+    private final SpawnManager spawnManager;
+    // Zones compare by identity; completions may arrive from region threads on Folia
+    private final Map<SpawnZone, Integer> inFlight = new ConcurrentHashMap<>();
+
+    public PoolRefiller(FFSpawn plugin, ConfigManager config, SpawnManager spawnManager) {
+        this.plugin = plugin;
+        this.config = config;
+        this.spawnManager = spawnManager;
+    }
+
+    @Override
+    public void run() {
+        long maxAge = config.getPoolMaxAgeMillis();
+        int perRun = config.getPoolRefillPerRun();
+
+        for (SpawnZone zone : config.getZones()) {
+            LocationPool pool = zone.getPool();
+            pool.evictExpired(maxAge);
+
+            World world = zone.getWorld();
+            if (world == null) continue;
+
+            int pending = inFlight.getOrDefault(zone, 0);
+            int missing = pool.getCapacity() - pool.size() - pending;
+            int toStart = Math.min(missing, perRun - pending);
+
+            for (int i = 0; i < toStart; i++) {
+                Location candidate = zone.getRandomLocation();
+                if (candidate == null) break;
+                if (!zone.acceptsChunk(world, candidate.getBlockX() >> 4, candidate.getBlockZ() >> 4)) continue;
+                // Pooled locations are claim-free for everyone, so the snapshot alone can reject
+                if (plugin.getGPHook().isClaimedFor(zone.getWorldName(), candidate.getBlockX(), candidate.getBlockZ(), null)) continue;
+                requestCandidate(zone, world, candidate);
+            }
+        }
+    }
+
+    private void requestCandidate(SpawnZone zone, World world, Location candidate) {
+        inFlight.merge(zone, 1, Integer::sum);
+
+        boolean generate = zone.getChunkMode() == SpawnZone.ChunkMode.ANY;
+        int chunkX = candidate.getBlockX() >> 4;
+        int chunkZ = candidate.getBlockZ() >> 4;
+        world.getChunkAtAsync(chunkX, chunkZ, generate).whenCompleteAsync((chunk, error) -> {
+            inFlight.computeIfPresent(zone, (z, n) -> n > 1 ? n - 1 : null);
+            if (error != null || chunk == null) return;
+
+            // Further safe columns of the chunk are pooled by the batch evaluation itself
+            spawnManager.evaluateChunk(zone, chunk, candidate, null).thenAccept(loc -> {
+                if (loc != null) {
+                    zone.getPool().offer(loc);
+                }
+            });
+        }, plugin.getSchedulerAdapter().at(world, chunkX, chunkZ));
+    }
+
+    /**
+     * Forget in-flight bookkeeping, e.g. after zones were reloaded.
+     */
+    public void reset() {
+        inFlight.clear();
+    }
+}
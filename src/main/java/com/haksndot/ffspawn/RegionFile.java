@@ -0,0 +1,110 @@
+package com.haksndot.ffspawn;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Read-only view of an Anvil region file ({@code r.<x>.<z>.mca}), memory-mapped.
+ * <p>
+ * The file starts with a 4 KiB table of 1024 chunk locations (3-byte sector offset, 1-byte
+ * sector count). Each chunk is stored as a 4-byte length, a compression byte and the compressed
+ * NBT. Chunks stored in external {@code .mcc} files or with LZ4 compression are skipped.
+ */
+public final class RegionFile implements AutoCloseable {
+
+    private static final int SECTOR_SIZE = 4096;
+    private static final int COMPRESSION_GZIP = 1;
+    private static final int COMPRESSION_ZLIB = 2;
+    private static final int COMPRESSION_NONE = 3;
+    private static final int EXTERNAL_FLAG = 0x80;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int regionX;
+    private final int regionZ;
+
+    public RegionFile(Path file) throws IOException {
+        String[] parts = file.getFileName().toString().split("\\.");
+        if (parts.length != 4 || !parts[0].equals("r") || !parts[3].equals("mca")) {
+            throw new IOException("Not a region file: " + file.getFileName());
+        }
+        try {
+            this.regionX = Integer.parseInt(parts[1]);
+            this.regionZ = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Not a region file: " + file.getFileName());
+        }
+
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    public int getRegionX() {
+        return regionX;
+    }
+
+    public int getRegionZ() {
+        return regionZ;
+    }
+
+    /**
+     * Whether the region holds data for the chunk at the given local coordinates (0-31).
+     */
+    public boolean hasChunk(int localX, int localZ) {
+        return location(localX, localZ) != 0;
+    }
+
+    /**
+     * Read and decompress a chunk's NBT, or null if the chunk is absent or stored in a
+     * format this reader skips.
+     */
+    public Map<String, Object> readChunk(int localX, int localZ) throws IOException {
+        int location = location(localX, localZ);
+        if (location == 0) return null;
+
+        long offset = (long) (location >>> 8) * SECTOR_SIZE;
+        if (offset + 5 > buffer.capacity()) return null;
+
+        int length = buffer.getInt((int) offset);
+        int compression = buffer.get((int) offset + 4) & 0xFF;
+        if (length <= 1 || offset + 4 + length > buffer.capacity()) return null;
+        if ((compression & EXTERNAL_FLAG) != 0) return null;
+
+        byte[] data = new byte[length - 1];
+        buffer.get((int) offset + 5, data);
+
+        InputStream raw = new ByteArrayInputStream(data);
+        InputStream in = switch (compression) {
+            case COMPRESSION_GZIP -> new GZIPInputStream(raw);
+            case COMPRESSION_ZLIB -> new InflaterInputStream(raw);
+            case COMPRESSION_NONE -> raw;
+            default -> null;
+        };
+        if (in == null) return null;
+
+        try (DataInputStream nbt = new DataInputStream(new BufferedInputStream(in))) {
+            return NbtReader.readRoot(nbt);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int location(int localX, int localZ) {
+        // Empty or truncated files have no complete location table
+        if (buffer.capacity() < SECTOR_SIZE) return 0;
+        return buffer.getInt(4 * ((localX & 31) + (localZ & 31) * 32));
+    }
+}
@@ -0,0 +1,405 @@
+package com.haksndot.ffspawn;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds a {@link SurveyIndex} for a zone's ring straight from the world's region files, without
+ * loading or generating any chunk. Each region file is surveyed as one task on a fork-join pool.
+ * <p>
+ * For every column inside the ring the surveyor records the surface Y (from the
+ * MOTION_BLOCKING_NO_LEAVES heightmap, the same one used for live spawns), the blocks at the
+ * surface and the two above it, and the biome at feet level. Chunks that are not fully generated
+ * are left out, so the index only ever describes terrain that actually exists.
+ * <p>
+ * This class does not use the server API and can run outside the server via {@link #main}.
+ */
+public class RegionSurveyor {
+
+    private static final String AIR = "minecraft:air";
+    private static final String DEFAULT_BIOME = "minecraft:plains";
+
+    private final Path regionDir;
+    private final double centerX;
+    private final double centerZ;
+    private final double innerRadius;
+    private final double outerRadius;
+
+    private final NameTable blocks = new NameTable();
+    private final NameTable biomes = new NameTable();
+    private final AtomicInteger chunksSurveyed = new AtomicInteger();
+    private final AtomicInteger chunksSkipped = new AtomicInteger();
+    private final AtomicInteger regionsFailed = new AtomicInteger();
+
+    private final List<long[]> directory = new ArrayList<>();
+    private FileChannel out;
+    private int recordCount;
+
+    public RegionSurveyor(Path regionDir, double centerX, double centerZ, double innerRadius, double outerRadius) {
+        this.regionDir = regionDir;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.innerRadius = innerRadius;
+        this.outerRadius = outerRadius;
+    }
+
+    /**
+     * Summary of a finished survey.
+     */
+    public record Result(int chunksSurveyed, int chunksSkipped, int regionsFailed, long millis) {}
+
+    /**
+     * Survey the ring and write the index to {@code output}, replacing any existing file once
+     * the new one is complete.
+     *
+     * @param threads Parallelism of the fork-join pool
+     */
+    public Result run(Path output, int threads) throws IOException {
+        long start = System.currentTimeMillis();
+
+        int minChunkX = (int) Math.floor(centerX - outerRadius) >> 4;
+        int maxChunkX = (int) Math.floor(centerX + outerRadius) >> 4;
+        int minChunkZ = (int) Math.floor(centerZ - outerRadius) >> 4;
+        int maxChunkZ = (int) Math.floor(centerZ + outerRadius) >> 4;
+
+        List<Path> regions = new ArrayList<>();
+        for (int rz = minChunkZ >> 5; rz <= maxChunkZ >> 5; rz++) {
+            for (int rx = minChunkX >> 5; rx <= maxChunkX >> 5; rx++) {
+                Path file = regionDir.resolve("r." + rx + "." + rz + ".mca");
+                if (Files.isRegularFile(file)) regions.add(file);
+            }
+        }
+
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        boolean written = false;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            this.out = channel;
+            // Air is always index 0 so missing sections need no lookup
+            blocks.intern(AIR);
+
+            pool.submit(() -> regions.parallelStream().forEach(this::surveyRegion)).get();
+            writeTrailer(channel);
+            channel.force(true);
+            written = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Survey interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Survey failed", e.getCause());
+        } finally {
+            pool.shutdown();
+            this.out = null;
+            // Don't leave a partial survey behind
+            if (!written) Files.deleteIfExists(temp);
+        }
+
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING);
+        return new Result(chunksSurveyed.get(), chunksSkipped.get(), regionsFailed.get(),
+                System.currentTimeMillis() - start);
+    }
+
+    private void surveyRegion(Path file) {
+        try (RegionFile region = new RegionFile(file)) {
+            ByteBuffer record = ByteBuffer.allocate(SurveyIndex.RECORD_SIZE);
+            for (int localZ = 0; localZ < 32; localZ++) {
+                for (int localX = 0; localX < 32; localX++) {
+                    int chunkX = (region.getRegionX() << 5) + localX;
+                    int chunkZ = (region.getRegionZ() << 5) + localZ;
+                    if (!chunkTouchesRing(chunkX, chunkZ) || !region.hasChunk(localX, localZ)) continue;
+
+                    Map<String, Object> chunk;
+                    try {
+                        chunk = region.readChunk(localX, localZ);
+                    } catch (IOException e) {
+                        chunk = null;
+                    }
+                    record.clear();
+                    if (chunk == null || !surveyChunk(chunk, chunkX, chunkZ, record)) {
+                        chunksSkipped.incrementAndGet();
+                        continue;
+                    }
+                    append(SurveyIndex.chunkKey(chunkX, chunkZ), record.flip());
+                    chunksSurveyed.incrementAndGet();
+                }
+            }
+        } catch (IOException e) {
+            regionsFailed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Fill one chunk record. Returns false if the chunk is not fully generated or malformed.
+     */
+    private boolean surveyChunk(Map<String, Object> chunk, int chunkX, int chunkZ, ByteBuffer record) {
+        String status = NbtReader.string(chunk, "Status");
+        if (status == null || !(status.equals("minecraft:full") || status.equals("full"))) return false;
+
+        Map<String, Object> heightmaps = NbtReader.compound(chunk, "Heightmaps");
+        long[] heights = heightmaps != null ? NbtReader.longArray(heightmaps, "MOTION_BLOCKING_NO_LEAVES") : null;
+        List<Object> sectionList = NbtReader.list(chunk, "sections");
+        if (heights == null || heights.length == 0 || sectionList == null) return false;
+
+        int minSection = NbtReader.intValue(chunk, "yPos", -4);
+        int minY = minSection << 4;
+        // Indexed by section Y; the list may be sparse and include light-only sections
+        int topSection = minSection;
+        for (Object entry : sectionList) {
+            if (entry instanceof Map<?, ?> section && section.get("Y") instanceof Number y) {
+                topSection = Math.max(topSection, y.intValue());
+            }
+        }
+        Section[] sections = new Section[topSection - minSection + 1];
+        for (Object entry : sectionList) {
+            if (!(entry instanceof Map<?, ?>)) continue;
+            @SuppressWarnings("unchecked")
+            Map<String, Object> section = (Map<String, Object>) entry;
+            int index = NbtReader.intValue(section, "Y", Integer.MIN_VALUE) - minSection;
+            if (index >= 0 && index < sections.length) sections[index] = new Section(section);
+        }
+
+        int heightBits = 64 / ceilDiv(256, heights.length);
+        for (int column = 0; column < 256; column++) {
+            int x = (chunkX << 4) + (column & 15);
+            int z = (chunkZ << 4) + (column >> 4);
+            int height = (int) unpack(heights, heightBits, column);
+            if (height == 0 || !inRing(x + 0.5, z + 0.5)) {
+                record.putShort(SurveyIndex.MISSING).putShort((short) 0).putShort((short) 0)
+                        .putShort((short) 0).putShort((short) 0);
+                continue;
+            }
+
+            int surfaceY = minY + height - 1;
+            record.putShort((short) surfaceY);
+            record.putShort((short) blockAt(sections, minSection, column, surfaceY));
+            record.putShort((short) blockAt(sections, minSection, column, surfaceY + 1));
+            record.putShort((short) blockAt(sections, minSection, column, surfaceY + 2));
+            record.putShort((short) biomeAt(sections, minSection, column, surfaceY + 1));
+        }
+        return true;
+    }
+
+    private int blockAt(Section[] sections, int minSection, int column, int y) {
+        int index = (y >> 4) - minSection;
+        if (index < 0 || index >= sections.length || sections[index] == null) return 0;
+        return sections[index].block(((y & 15) << 8) | column, blocks);
+    }
+
+    private int biomeAt(Section[] sections, int minSection, int column, int y) {
+        int index = Math.min((y >> 4) - minSection, sections.length - 1);
+        if (index < 0 || sections[index] == null) return biomes.intern(DEFAULT_BIOME);
+        if ((y >> 4) - minSection > index) {
+            // Feet are above the top section; the biome there is that of its top layer
+            y = 15;
+        }
+        int cell = (((y & 15) >> 2) << 4) | (((column >> 4) >> 2) << 2) | ((column & 15) >> 2);
+        return sections[index].biome(cell, biomes);
+    }
+
+    private synchronized void append(long key, ByteBuffer record) {
+        try {
+            long position = SurveyIndex.HEADER_SIZE + (long) recordCount * SurveyIndex.RECORD_SIZE;
+            while (record.hasRemaining()) {
+                position += out.write(record, position);
+            }
+            directory.add(new long[]{key, recordCount++});
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeTrailer(FileChannel channel) throws IOException {
+        directory.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        long directoryOffset = SurveyIndex.HEADER_SIZE + (long) recordCount * SurveyIndex.RECORD_SIZE;
+        ByteBuffer dir = ByteBuffer.allocate(directory.size() * 12);
+        for (long[] entry : directory) {
+            dir.putLong(entry[0]).putInt((int) entry[1]);
+        }
+        long position = directoryOffset + writeFully(channel, dir.flip(), directoryOffset);
+
+        long tableOffset = position;
+        position += writeFully(channel, encodeTable(blocks.toArray()), position);
+        writeFully(channel, encodeTable(biomes.toArray()), position);
+
+        ByteBuffer header = ByteBuffer.allocate(SurveyIndex.HEADER_SIZE);
+        header.putInt(SurveyIndex.MAGIC).putInt(SurveyIndex.VERSION);
+        header.putDouble(centerX).putDouble(centerZ).putDouble(innerRadius).putDouble(outerRadius);
+        header.putInt(directory.size()).putLong(directoryOffset).putLong(tableOffset);
+        header.clear();
+        writeFully(channel, header, 0);
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            total += channel.write(buffer, position + total);
+        }
+        return total;
+    }
+
+    private static ByteBuffer encodeTable(String[] names) {
+        List<byte[]> encoded = new ArrayList<>(names.length);
+        int size = 4;
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            size += 2 + bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(names.length);
+        for (byte[] bytes : encoded) {
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+        return buffer.flip();
+    }
+
+    private boolean chunkTouchesRing(int chunkX, int chunkZ) {
+        double minX = chunkX << 4, minZ = chunkZ << 4;
+        double maxX = minX + 16, maxZ = minZ + 16;
+        // Nearest and farthest points of the chunk square from the center
+        double nx = Math.max(minX, Math.min(centerX, maxX)) - centerX;
+        double nz = Math.max(minZ, Math.min(centerZ, maxZ)) - centerZ;
+        double fx = Math.max(Math.abs(minX - centerX), Math.abs(maxX - centerX));
+        double fz = Math.max(Math.abs(minZ - centerZ), Math.abs(maxZ - centerZ));
+        return nx * nx + nz * nz <= outerRadius * outerRadius && fx * fx + fz * fz >= innerRadius * innerRadius;
+    }
+
+    private boolean inRing(double x, double z) {
+        double dx = x - centerX;
+        double dz = z - centerZ;
+        double d2 = dx * dx + dz * dz;
+        return d2 >= innerRadius * innerRadius && d2 <= outerRadius * outerRadius;
+    }
+
+    /**
+     * Value at {@code index} of a packed long array whose entries don't span longs.
+     */
+    private static long unpack(long[] data, int bits, int index) {
+        int perLong = 64 / bits;
+        int word = index / perLong;
+        if (word >= data.length) return 0;
+        return (data[word] >>> ((index % perLong) * bits)) & ((1L << bits) - 1);
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    /**
+     * Block and biome palettes of one 16x16x16 chunk section, mapped to global name indices
+     * on first use.
+     */
+    private static final class Section {
+        private final List<Object> blockPalette;
+        private final long[] blockData;
+        private final List<Object> biomePalette;
+        private final long[] biomeData;
+        private int[] blockIds;
+        private int[] biomeIds;
+
+        Section(Map<String, Object> section) {
+            Map<String, Object> states = NbtReader.compound(section, "block_states");
+            Map<String, Object> biomes = NbtReader.compound(section, "biomes");
+            this.blockPalette = states != null ? NbtReader.list(states, "palette") : null;
+            this.blockData = states != null ? NbtReader.longArray(states, "data") : null;
+            this.biomePalette = biomes != null ? NbtReader.list(biomes, "palette") : null;
+            this.biomeData = biomes != null ? NbtReader.longArray(biomes, "data") : null;
+        }
+
+        int block(int index, NameTable names) {
+            if (blockPalette == null || blockPalette.isEmpty()) return 0;
+            if (blockIds == null) {
+                blockIds = new int[blockPalette.size()];
+                for (int i = 0; i < blockIds.length; i++) {
+                    String name = blockPalette.get(i) instanceof Map<?, ?> state && state.get("Name") instanceof String s ? s : AIR;
+                    blockIds[i] = names.intern(name);
+                }
+            }
+            // Block states use at least 4 bits per entry
+            return blockIds[paletteIndex(blockData, Math.max(4, bitsFor(blockIds.length)), index, blockIds.length)];
+        }
+
+        int biome(int index, NameTable names) {
+            if (biomePalette == null || biomePalette.isEmpty()) return names.intern(DEFAULT_BIOME);
+            if (biomeIds == null) {
+                biomeIds = new int[biomePalette.size()];
+                for (int i = 0; i < biomeIds.length; i++) {
+                    biomeIds[i] = names.intern(biomePalette.get(i) instanceof String s ? s : DEFAULT_BIOME);
+                }
+            }
+            return biomeIds[paletteIndex(biomeData, bitsFor(biomeIds.length), index, biomeIds.length)];
+        }
+
+        private static int paletteIndex(long[] data, int bits, int index, int paletteSize) {
+            // Single-entry palettes have no data array
+            if (data == null || data.length == 0) return 0;
+            int value = (int) unpack(data, bits, index);
+            return value < paletteSize ? value : 0;
+        }
+
+        /**
+         * Bits per entry for a palette of the given size. Taken from the palette rather than the
+         * data length, which is ambiguous: e.g. 64 biome entries fill 4 longs at 3 or 4 bits.
+         */
+        private static int bitsFor(int paletteSize) {
+            return Math.max(1, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+        }
+    }
+
+    /**
+     * Thread-safe interning of block and biome names to dense indices.
+     */
+    private static final class NameTable {
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final AtomicInteger next = new AtomicInteger();
+
+        int intern(String name) {
+            return ids.computeIfAbsent(name, n -> next.getAndIncrement());
+        }
+
+        String[] toArray() {
+            String[] names = new String[ids.size()];
+            ids.forEach((name, id) -> names[id] = name);
+            return names;
+        }
+    }
+
+    /**
+     * Command line entry point, for surveying a copy of a world or a server that is offline:
+     * {@code java -jar ff-spawn.jar <region-dir> <center-x> <center-z> <inner> <outer> <output> [threads]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 6) {
+            System.err.println("Usage: java -jar ff-spawn.jar <region-dir> <center-x> <center-z> "
+                    + "<inner-radius> <outer-radius> <output> [threads]");
+            System.exit(2);
+        }
+
+        int threads = args.length > 6 ? Integer.parseInt(args[6]) : Runtime.getRuntime().availableProcessors();
+        RegionSurveyor surveyor = new RegionSurveyor(Path.of(args[0]), Double.parseDouble(args[1]),
+                Double.parseDouble(args[2]), Double.parseDouble(args[3]), Double.parseDouble(args[4]));
+        Result result = surveyor.run(Path.of(args[5]), threads);
+
+        System.out.println("Surveyed " + result.chunksSurveyed() + " chunks in " + result.millis() + " ms ("
+                + result.chunksSkipped() + " skipped, " + result.regionsFailed() + " unreadable regions)");
+    }
+}
@@ -33,34 +33,46 @@ public class RespawnListener implements Listener {
         }
 
         // Player is "unbedded" - find them a random spawn location
+        if (useAsyncSearch()) {
+            Location pooled = plugin.getSpawnManager().findPooledLocation(player);
+            if (pooled == null) {
+                // Nothing ready - respawn at the holding point and search in the background
+                Location holding = plugin.getSpawnManager().getHoldingLocation();
+                if (holding != null) {
+                    event.setRespawnLocation(holding);
+                }
+                queueRelocation(player, "");
+                return;
+            }
+            event.setRespawnLocation(pooled);
+            announceSpawn(player, pooled, "");
+            return;
+        }
+
+        if (!plugin.getRespawnScheduler().trySyncSearch()) {
+            // Respawn storm - use a ready location, or wait at the holding point and search over the next ticks
+            Location pooled = plugin.getSpawnManager().findPooledLocation(player);
+            if (pooled != null) {
+                event.setRespawnLocation(pooled);
+                announceSpawn(player, pooled, "");
+                return;
+            }
+            Location holding = plugin.getSpawnManager().getHoldingLocation();
+            if (holding != null) {
+                event.setRespawnLocation(holding);
+            }
+            queueRelocation(player, "");
+            return;
+        }
+
         Location spawnLoc = plugin.getSpawnManager().findSpawnLocation(player);
 
         if (spawnLoc != null) {
             event.setRespawnLocation(spawnLoc);
-
-            // Send message if configured
-            String message = plugin.getConfigManager().getMessageSpawned();
-            if (!message.isEmpty()) {
-                // Delay message slightly so player sees it after respawning
-                plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                    if (player.isOnline()) {
-                        player.sendMessage(message);
-                    }
-                }, 20L); // 1 second delay
-            }
-
-            plugin.getLogger().info("Random spawned " + player.getName() + " at " +
-                    String.format("%.0f, %.0f, %.0f", spawnLoc.getX(), spawnLoc.getY(), spawnLoc.getZ()));
+            announceSpawn(player, spawnLoc, "");
         } else {
             // Failed to find valid spawn - use world spawn (default behavior)
-            String message = plugin.getConfigManager().getMessageFallback();
-            if (!message.isEmpty()) {
-                plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                    if (player.isOnline()) {
-                        player.sendMessage(message);
-                    }
-                }, 20L);
-            }
+            sendLater(player, plugin.getConfigManager().getMessageFallback());
         }
     }
 
@@ -93,24 +105,82 @@ public class RespawnListener implements Listener {
         }
 
         // Player is unbedded - find random spawn
+        if (useAsyncSearch()) {
+            Location pooled = plugin.getSpawnManager().findPooledLocation(player);
+            if (pooled == null) {
+                // Nothing ready - exit to the holding point and search in the background
+                Location holding = plugin.getSpawnManager().getHoldingLocation();
+                if (holding != null) {
+                    event.setTo(holding);
+                }
+                queueRelocation(player, " (End return)");
+                return;
+            }
+            event.setTo(pooled);
+            announceSpawn(player, pooled, " (End return)");
+            return;
+        }
+
+        if (!plugin.getRespawnScheduler().trySyncSearch()) {
+            // Respawn storm - use a ready location, or exit to the holding point and search over the next ticks
+            Location pooled = plugin.getSpawnManager().findPooledLocation(player);
+            if (pooled != null) {
+                event.setTo(pooled);
+                announceSpawn(player, pooled, " (End return)");
+                return;
+            }
+            Location holding = plugin.getSpawnManager().getHoldingLocation();
+            if (holding != null) {
+                event.setTo(holding);
+            }
+            queueRelocation(player, " (End return)");
+            return;
+        }
+
         Location spawnLoc = plugin.getSpawnManager().findSpawnLocation(player);
 
         if (spawnLoc != null) {
             event.setTo(spawnLoc);
+            announceSpawn(player, spawnLoc, " (End return)");
+        }
+        // If no valid spawn found, default behavior will send them to world spawn
+    }
 
-            // Send message if configured
-            String message = plugin.getConfigManager().getMessageSpawned();
-            if (!message.isEmpty()) {
-                plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                    if (player.isOnline()) {
-                        player.sendMessage(message);
-                    }
-                }, 20L);
+    /**
+     * Whether respawns search in the background. Always on Folia, where a search during the
+     * event could touch chunks owned by other regions.
+     */
+    private boolean useAsyncSearch() {
+        return plugin.getConfigManager().isAsyncRespawnEnabled() || plugin.getSchedulerAdapter().isFolia();
+    }
+
+    /**
+     * Queue the asynchronous search; the player is moved from the holding point once it finishes.
+     */
+    private void queueRelocation(Player player, String context) {
+        plugin.getRespawnScheduler().enqueue(player, loc -> {
+            if (loc != null) {
+                announceSpawn(player, loc, context);
+            } else {
+                sendLater(player, plugin.getConfigManager().getMessageFallback());
             }
+        });
+    }
 
-            plugin.getLogger().info("Random spawned " + player.getName() + " (End return) at " +
-                    String.format("%.0f, %.0f, %.0f", spawnLoc.getX(), spawnLoc.getY(), spawnLoc.getZ()));
-        }
-        // If no valid spawn found, default behavior will send them to world spawn
+    private void announceSpawn(Player player, Location spawnLoc, String context) {
+        sendLater(player, plugin.getConfigManager().getMessageSpawned());
+        plugin.getLogger().info("Random spawned " + player.getName() + context + " at " +
+                String.format("%.0f, %.0f, %.0f", spawnLoc.getX(), spawnLoc.getY(), spawnLoc.getZ()));
+    }
+
+    private void sendLater(Player player, String message) {
+        if (message.isEmpty()) return;
+
+        // Delay message slightly so player sees it after respawning
+        plugin.getSchedulerAdapter().runLater(player, () -> {
+            if (player.isOnline()) {
+                player.sendMessage(message);
+            }
+        }, 20L); // 1 second delay
     }
 }
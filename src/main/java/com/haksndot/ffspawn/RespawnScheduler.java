@@ -0,0 +1,165 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Spreads spawn searches for respawning players over several ticks, so a mass death or a
+ * burst of respawns after a restart doesn't run dozens of searches in one tick.
+ * <p>
+ * Queued players wait at the holding point. Each tick, up to {@code respawn-queue.starts-per-tick}
+ * asynchronous searches are started, in arrival order, with at most
+ * {@code respawn-queue.max-concurrent} running at once. A running search loads one chunk at a
+ * time, so this also caps concurrent chunk loads. Runs every tick on the main thread (the global
+ * region thread on Folia, where players respawn on their own region threads, hence the locking).
+ */
+public class RespawnScheduler implements Runnable, Listener {
+
+    private final FFSpawn plugin;
+    private final ConfigManager config;
+    private final SpawnManager spawnManager;
+    // Insertion order is arrival order, so the head has waited longest
+    private final Map<UUID, Waiting> queue = new LinkedHashMap<>();
+    private final LongAdder enqueued;
+    private final LongAdder completed;
+    private final LongAdder dropped;
+    private final LongAdder waitMillis;
+    private int running;
+    private long maxWaitMillis;
+    private int syncTick = -1;
+    private int syncThisTick;
+
+    public RespawnScheduler(FFSpawn plugin, ConfigManager config, SpawnManager spawnManager) {
+        this.plugin = plugin;
+        this.config = config;
+        this.spawnManager = spawnManager;
+        SpawnStats stats = spawnManager.getStats();
+        this.enqueued = stats.counter("respawn-queue.enqueued");
+        this.completed = stats.counter("respawn-queue.completed");
+        this.dropped = stats.counter("respawn-queue.dropped");
+        this.waitMillis = stats.counter("respawn-queue.wait-millis");
+    }
+
+    /**
+     * Whether a respawn may search synchronously right now. False once this tick's share of
+     * synchronous searches is used up, or while others are still queued, so arrival order holds.
+     */
+    public synchronized boolean trySyncSearch() {
+        if (!config.isRespawnQueueEnabled()) return true;
+        if (!queue.isEmpty()) return false;
+
+        int tick = plugin.getServer().getCurrentTick();
+        if (tick != syncTick) {
+            syncTick = tick;
+            syncThisTick = 0;
+        }
+        return syncThisTick++ < config.getRespawnQueueSyncPerTick();
+    }
+
+    /**
+     * Queue a search for a player who is waiting at the holding point. A player already in
+     * the queue keeps their place.
+     *
+     * @param onDone Called on the player's thread with the new location, or null if none was found
+     */
+    public synchronized void enqueue(Player player, Consumer<Location> onDone) {
+        if (queue.putIfAbsent(player.getUniqueId(), new Waiting(System.nanoTime(), onDone)) == null) {
+            enqueued.increment();
+        }
+    }
+
+    @Override
+    public synchronized void run() {
+        boolean limited = config.isRespawnQueueEnabled();
+        int starts = limited ? config.getRespawnQueueStartsPerTick() : Integer.MAX_VALUE;
+        int maxRunning = limited ? config.getRespawnQueueMaxConcurrent() : Integer.MAX_VALUE;
+
+        Iterator<Map.Entry<UUID, Waiting>> it = queue.entrySet().iterator();
+        while (starts > 0 && running < maxRunning && it.hasNext()) {
+            Map.Entry<UUID, Waiting> entry = it.next();
+            it.remove();
+
+            Player player = plugin.getServer().getPlayer(entry.getKey());
+            if (player == null || player.isDead()) {
+                // Left, or died again and will be queued anew
+                dropped.increment();
+                continue;
+            }
+
+            Waiting waiting = entry.getValue();
+            starts--;
+            running++;
+            CompletableFuture<Location> search;
+            try {
+                search = spawnManager.teleportToRandomSpawnAsync(player);
+            } catch (RuntimeException e) {
+                // Still finish the slot, or it stays taken forever
+                plugin.getLogger().warning("Queued respawn search for " + player.getName() + " failed: " + e);
+                search = CompletableFuture.failedFuture(e);
+            }
+            search.whenComplete((loc, error) -> {
+                finished(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waiting.queuedAt()));
+                waiting.onDone().accept(error == null ? loc : null);
+            });
+        }
+    }
+
+    private synchronized void finished(long waited) {
+        running--;
+        waitMillis.add(waited);
+        maxWaitMillis = Math.max(maxWaitMillis, waited);
+        completed.increment();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public synchronized void onPlayerQuit(PlayerQuitEvent event) {
+        if (queue.remove(event.getPlayer().getUniqueId()) != null) {
+            dropped.increment();
+        }
+    }
+
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    /**
+     * Longest time a player waited for a queued search, in milliseconds.
+     */
+    public synchronized long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * Waiting time of the player at the head of the queue, in milliseconds.
+     */
+    public synchronized long getOldestWaitMillis() {
+        for (Waiting waiting : queue.values()) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waiting.queuedAt());
+        }
+        return 0;
+    }
+
+    public synchronized void resetStats() {
+        maxWaitMillis = 0;
+    }
+
+    private record Waiting(long queuedAt, Consumer<Location> onDone) {
+    }
+}
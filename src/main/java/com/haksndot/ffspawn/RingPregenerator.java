@@ -0,0 +1,307 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.ChatColor;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates every chunk of a zone's ring in the background with {@link World#getChunkAtAsync},
+ * so respawns in a new zone don't pay for world generation during the tick.
+ * <p>
+ * Chunks are requested in row order over the ring's bounding box, skipping chunks the ring
+ * doesn't touch. The number of requests in flight follows the server's average tick time: it
+ * grows by one each second while MSPT stays below {@code pregen.target-mspt} and is halved when
+ * MSPT goes above it. Every chunk feeds the zone's height cache and mask. Progress is saved to
+ * {@code pregen/<zone>.progress}, and a job interrupted by a restart or reload resumes
+ * afterwards; one stopped on request waits to be started again. One zone is generated at a
+ * time. Runs every tick on the main (global region) thread.
+ */
+public class RingPregenerator implements Runnable {
+
+    private static final int MAGIC = 0x46465047; // "FFPG"
+    private static final int VERSION = 2;
+    // Chunks outside the ring skipped per tick while looking for the next request
+    private static final int MAX_SKIPS_PER_TICK = 4096;
+
+    private final FFSpawn plugin;
+    private final ConfigManager config;
+    private final SpawnManager spawnManager;
+    private final LongAdder chunksDone;
+    private Job job;
+    private int ticks;
+
+    public RingPregenerator(FFSpawn plugin, ConfigManager config, SpawnManager spawnManager) {
+        this.plugin = plugin;
+        this.config = config;
+        this.spawnManager = spawnManager;
+        this.chunksDone = spawnManager.getStats().counter("pregen.chunks");
+    }
+
+    /**
+     * Start generating a zone's ring, continuing from saved progress if there is any.
+     *
+     * @param requester Told when the job finishes, or null
+     * @return false if a job is already running
+     */
+    public synchronized boolean start(SpawnZone zone, World world, CommandSender requester) {
+        if (job != null) return false;
+        job = new Job(zone, world, requester);
+        job.cursor = readProgress(zone).cursor();
+        return true;
+    }
+
+    /**
+     * Stop the running job, keeping its progress for later.
+     *
+     * @param explicit Whether it was stopped on request, so it isn't resumed automatically.
+     *                 False when it is only interrupted by a reload or shutdown.
+     * @return the zone that was being generated, or null if none was
+     */
+    public synchronized SpawnZone stop(boolean explicit) {
+        if (job == null) return null;
+        SpawnZone zone = job.zone;
+        job.stopped = explicit;
+        saveProgress(job);
+        job = null;
+        return zone;
+    }
+
+    /**
+     * Resume an unfinished job interrupted by a restart or reload, if no job is running.
+     */
+    public synchronized void resumeSaved() {
+        if (job != null) return;
+        for (SpawnZone zone : config.getZones()) {
+            World world = zone.getWorld();
+            if (world == null || !config.getPregenFile(zone).exists()) continue;
+            Progress progress = readProgress(zone);
+            if (progress.cursor() == 0 || progress.stopped()) continue;
+            start(zone, world, null);
+            plugin.getLogger().info("Resuming pre-generation of zone '" + zone.getName() + "' at " +
+                    String.format("%.1f%%", job.percent()) + ".");
+            return;
+        }
+    }
+
+    @Override
+    public synchronized void run() {
+        Job j = job;
+        if (j == null) return;
+
+        if (++ticks % 20 == 0) {
+            adjustConcurrency(j);
+            if (j.maskChanges > 0 && j.zone.getMask() != null) {
+                j.zone.getMask().commit();
+                j.maskChanges = 0;
+            }
+        }
+
+        int skipped = 0;
+        while (j.inFlight.size() < j.concurrency && j.cursor < j.total && skipped < MAX_SKIPS_PER_TICK) {
+            int index = j.cursor++;
+            int chunkX = j.minChunkX + index % j.width;
+            int chunkZ = j.minChunkZ + index / j.width;
+            if (!j.zone.touchesChunk(chunkX, chunkZ)) {
+                skipped++;
+                continue;
+            }
+            request(j, index, chunkX, chunkZ);
+        }
+
+        if (j.cursor >= j.total && j.inFlight.isEmpty()) {
+            finish(j);
+        } else if (ticks % (config.getPregenSaveIntervalSeconds() * 20) == 0) {
+            saveProgress(j);
+        }
+    }
+
+    private void request(Job j, int index, int chunkX, int chunkZ) {
+        j.inFlight.add(index);
+        j.world.getChunkAtAsync(chunkX, chunkZ, true).whenCompleteAsync((chunk, error) -> {
+            // A stopped job's zone may have been replaced by a reload; leave its cache alone
+            CompletableFuture<Boolean> terrain = error == null && chunk != null && isCurrent(j)
+                    ? spawnManager.recordChunkTerrain(j.zone, chunk)
+                    : CompletableFuture.completedFuture(null);
+            terrain.whenComplete((anySafe, e) -> completed(j, index, chunkX, chunkZ, e == null ? anySafe : null));
+        }, plugin.getSchedulerAdapter().at(j.world, chunkX, chunkZ));
+    }
+
+    private synchronized boolean isCurrent(Job j) {
+        return j == job;
+    }
+
+    private synchronized void completed(Job j, int index, int chunkX, int chunkZ, Boolean anySafe) {
+        // Likewise its mask
+        if (j != job) return;
+        j.inFlight.remove(index);
+        chunksDone.increment();
+        ZoneMask mask = j.zone.getMask();
+        if (anySafe != null && mask != null) {
+            // Sampled terrain now exists for this chunk, whatever earlier candidates concluded
+            mask.setChunkAllowed(chunkX, chunkZ, anySafe);
+            j.maskChanges++;
+        }
+    }
+
+    /**
+     * More requests in flight while ticks are fast, half as many once they are slow.
+     */
+    private void adjustConcurrency(Job j) {
+        double mspt = averageTickTime();
+        if (Double.isNaN(mspt)) return;
+        j.mspt = mspt;
+        if (mspt > config.getPregenTargetMspt()) {
+            j.concurrency = Math.max(1, j.concurrency / 2);
+        } else if (j.inFlight.size() >= j.concurrency) {
+            j.concurrency = Math.min(config.getPregenMaxConcurrent(), j.concurrency + 1);
+        }
+    }
+
+    private double averageTickTime() {
+        try {
+            return plugin.getServer().getAverageTickTime();
+        } catch (UnsupportedOperationException e) {
+            // Folia has no server-wide tick time; stay at the starting concurrency
+            return Double.NaN;
+        }
+    }
+
+    private void finish(Job j) {
+        job = null;
+        if (j.zone.getMask() != null) j.zone.getMask().commit();
+        config.saveMasks();
+        config.flushHeightCaches();
+        File file = config.getPregenFile(j.zone);
+        if (file.exists() && !file.delete()) {
+            plugin.getLogger().warning("Failed to delete " + file.getName());
+        }
+
+        String message = "Pre-generated " + j.ringChunks + " chunk(s) of zone '" + j.zone.getName() + "'.";
+        plugin.getLogger().info(message);
+        if (j.requester != null) {
+            j.requester.sendMessage(ChatColor.GREEN + message);
+        }
+    }
+
+    /**
+     * Zone being generated, or null if no job is running.
+     */
+    public synchronized SpawnZone getZone() {
+        return job != null ? job.zone : null;
+    }
+
+    /**
+     * Short description of the running job for {@code /ffs pregen}, or null if none is running.
+     */
+    public synchronized String describe() {
+        if (job == null) return null;
+        return String.format("zone '%s': %.1f%% (%d in flight, limit %d, %.1f mspt)", job.zone.getName(),
+                job.percent(), job.inFlight.size(), job.concurrency, job.mspt);
+    }
+
+    /**
+     * Progress saved for the zone's current ring, or {@link Progress#NONE} if there is none.
+     */
+    private Progress readProgress(SpawnZone zone) {
+        File file = config.getPregenFile(zone);
+        if (!file.exists()) return Progress.NONE;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return Progress.NONE;
+            if (in.readDouble() != zone.getCenterX() || in.readDouble() != zone.getCenterZ()
+                    || in.readDouble() != zone.getInnerRadius() || in.readDouble() != zone.getOuterRadius()) {
+                // Zone was moved or resized; start over
+                return Progress.NONE;
+            }
+            return new Progress(in.readInt(), in.readBoolean());
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to read " + file.getName() + ": " + e.getMessage());
+            return Progress.NONE;
+        }
+    }
+
+    private void saveProgress(Job j) {
+        File file = config.getPregenFile(j.zone);
+        File parent = file.getParentFile();
+        if (parent != null) parent.mkdirs();
+        File temp = new File(file.getPath() + ".tmp");
+        // Chunks still in flight are requested again after a restart
+        int resumeAt = j.inFlight.isEmpty() ? j.cursor : j.inFlight.first();
+        try {
+            try (OutputStream stream = Files.newOutputStream(temp.toPath());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeDouble(j.zone.getCenterX());
+                out.writeDouble(j.zone.getCenterZ());
+                out.writeDouble(j.zone.getInnerRadius());
+                out.writeDouble(j.zone.getOuterRadius());
+                out.writeInt(resumeAt);
+                out.writeBoolean(j.stopped);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save pre-generation progress: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param cursor  Next chunk to request: everything before it is done
+     * @param stopped Whether the job was stopped on request rather than interrupted
+     */
+    private record Progress(int cursor, boolean stopped) {
+        static final Progress NONE = new Progress(0, false);
+    }
+
+    private static final class Job {
+        final SpawnZone zone;
+        final World world;
+        final CommandSender requester;
+        final int minChunkX;
+        final int minChunkZ;
+        final int width;
+        final int total;
+        final int ringChunks;
+        // Indices requested but not finished, so progress is only saved up to the oldest
+        final TreeSet<Integer> inFlight = new TreeSet<>();
+        int cursor;
+        int concurrency = 1;
+        int maskChanges;
+        double mspt;
+        boolean stopped;
+
+        Job(SpawnZone zone, World world, CommandSender requester) {
+            this.zone = zone;
+            this.world = world;
+            this.requester = requester;
+            this.minChunkX = (int) Math.floor(zone.getCenterX() - zone.getOuterRadius()) >> 4;
+            this.minChunkZ = (int) Math.floor(zone.getCenterZ() - zone.getOuterRadius()) >> 4;
+            this.width = ((int) Math.floor(zone.getCenterX() + zone.getOuterRadius()) >> 4) - minChunkX + 1;
+            int height = ((int) Math.floor(zone.getCenterZ() + zone.getOuterRadius()) >> 4) - minChunkZ + 1;
+            this.total = width * height;
+
+            int count = 0;
+            for (int i = 0; i < total; i++) {
+                if (zone.touchesChunk(minChunkX + i % width, minChunkZ + i / width)) count++;
+            }
+            this.ringChunks = count;
+        }
+
+        double percent() {
+            return total > 0 ? Math.min(100.0, cursor * 100.0 / total) : 100.0;
+        }
+    }
+}
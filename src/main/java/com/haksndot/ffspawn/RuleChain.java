@@ -0,0 +1,169 @@
+package com.haksndot.ffspawn;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * The spawn rules of one zone, ordered so that rules which are cheap and reject often run first.
+ * <p>
+ * Tests and rejections are counted per rule. Every {@code reorderInterval} candidates, the rules
+ * of each stage are sorted by expected cost per rejection, {@code cost / P(reject)}, and the
+ * counts are halved so the order keeps up with changing terrain or player numbers.
+ * <p>
+ * Terrain rules are the built-in checks whose outcome the height cache and chunk snapshots
+ * already cover; they are skipped when the terrain verdict is known.
+ * <p>
+ * On Folia a chain is used from several region threads at once. Re-ordering swaps in sorted
+ * copies of the stages, so a test always runs over a complete stage; the counts are updated
+ * without locking and are approximate under contention, which the ordering tolerates.
+ */
+public class RuleChain {
+
+    /** Outcomes of {@link #testSpot}. */
+    public static final int PASSED = 0;
+    public static final int REJECTED = 1;
+    public static final int TERRAIN_REJECTED = 2;
+
+    private volatile Entry[] column;
+    private volatile Entry[] spot;
+    private final int reorderInterval;
+    private final int version;
+    private final Logger logger;
+    private final AtomicInteger sinceReorder = new AtomicInteger();
+
+    /**
+     * @param rules        Every rule, in their initial order
+     * @param terrainRules Those of {@code rules} whose outcome depends only on terrain and config
+     * @param version      Rule set version the chain was built from
+     */
+    public RuleChain(List<SpawnRule> rules, List<SpawnRule> terrainRules, int reorderInterval, int version,
+                     Logger logger) {
+        this.column = rules.stream().filter(r -> r.getStage() == SpawnRule.Stage.COLUMN)
+                .map(r -> new Entry(r, false)).toArray(Entry[]::new);
+        this.spot = rules.stream().filter(r -> r.getStage() == SpawnRule.Stage.SPOT)
+                .map(r -> new Entry(r, terrainRules.contains(r))).toArray(Entry[]::new);
+        this.reorderInterval = reorderInterval;
+        this.version = version;
+        this.logger = logger;
+        reorder();
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Run the column rules. Counts as one candidate towards the next re-ordering.
+     *
+     * @return true if every column rule accepted
+     */
+    public boolean testColumn(SpawnCandidate candidate) {
+        if (sinceReorder.incrementAndGet() >= reorderInterval) {
+            sinceReorder.set(0);
+            reorder();
+        }
+        for (Entry entry : column) {
+            if (!entry.test(candidate, logger)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Run the spot rules; the candidate's Y must be set.
+     *
+     * @param terrainKnown Whether the terrain verdict is already known to be safe, so the
+     *                     terrain rules can be skipped
+     * @return {@link #PASSED}, {@link #TERRAIN_REJECTED} if a terrain rule rejected, or
+     *         {@link #REJECTED} if another rule did
+     */
+    public int testSpot(SpawnCandidate candidate, boolean terrainKnown) {
+        for (Entry entry : spot) {
+            if (terrainKnown && entry.terrain) continue;
+            if (!entry.test(candidate, logger)) return entry.terrain ? TERRAIN_REJECTED : REJECTED;
+        }
+        return PASSED;
+    }
+
+    /**
+     * Current order with each rule's observed rejection rate, e.g. for {@code /ffs stats}.
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (Entry[] stage : new Entry[][]{column, spot}) {
+            for (Entry entry : stage) {
+                if (sb.length() > 0) sb.append(" > ");
+                sb.append(entry.rule.getName()).append(' ')
+                        .append(Math.round(100.0 * entry.rejected / Math.max(1, entry.tested))).append('%');
+            }
+        }
+        return sb.toString();
+    }
+
+    private synchronized void reorder() {
+        column = sort(column);
+        spot = sort(spot);
+    }
+
+    private static Entry[] sort(Entry[] stage) {
+        Entry[] entries = Arrays.copyOf(stage, stage.length);
+        for (Entry entry : entries) {
+            // Smoothed so unseen rules start at a rejection rate of one half
+            double rejectRate = (entry.rejected + 1.0) / (entry.tested + 2.0);
+            entry.score = entry.cost() / rejectRate;
+            entry.tested >>= 1;
+            entry.rejected >>= 1;
+        }
+        // Insertion sort: a handful of rules
+        for (int i = 1; i < entries.length; i++) {
+            Entry current = entries[i];
+            int j = i - 1;
+            while (j >= 0 && entries[j].score > current.score) {
+                entries[j + 1] = entries[j];
+                j--;
+            }
+            entries[j + 1] = current;
+        }
+        return entries;
+    }
+
+    private static final class Entry {
+        final SpawnRule rule;
+        final boolean terrain;
+        long tested;
+        long rejected;
+        double score;
+        boolean failed;
+
+        Entry(SpawnRule rule, boolean terrain) {
+            this.rule = rule;
+            this.terrain = terrain;
+        }
+
+        double cost() {
+            try {
+                return Math.max(0.01, rule.getCost());
+            } catch (RuntimeException e) {
+                return 1;
+            }
+        }
+
+        boolean test(SpawnCandidate candidate, Logger logger) {
+            boolean accepted;
+            try {
+                accepted = rule.test(candidate);
+            } catch (RuntimeException e) {
+                // A broken rule must not stop spawning; report it once and let candidates through
+                if (!failed) {
+                    failed = true;
+                    logger.warning("Spawn rule '" + rule.getName() + "' failed: " + e);
+                }
+                accepted = true;
+            }
+            tested++;
+            if (!accepted) rejected++;
+            return accepted;
+        }
+    }
+}
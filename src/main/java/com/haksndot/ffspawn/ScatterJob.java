@@ -0,0 +1,227 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scatters a group of players across one zone, e.g. at the start of an event.
+ * <p>
+ * Destinations are searched through {@link FFSpawnService}, at most {@code scatter.concurrency}
+ * at a time. A destination closer than the minimum separation to one already taken is searched
+ * again. Each accepted destination's chunk is loaded with {@link World#getChunkAtAsync} and
+ * pinned until its player has moved; a destination whose chunk fails to load is searched
+ * again. Every {@code scatter.wave-interval} ticks, up to {@code scatter.wave-size} players
+ * whose chunks are ready are moved with {@link Player#teleportAsync}, so teleports start while
+ * later destinations are still being searched. The sender gets the total time and the latency
+ * per player, from the command to the finished teleport. State is only touched on the main
+ * (global region) thread.
+ */
+public class ScatterJob implements Runnable {
+
+    // Searches per player before giving up on finding a destination far enough from the others
+    private static final int MAX_TRIES = 5;
+
+    private final FFSpawn plugin;
+    private final CommandSender sender;
+    private final SpawnZone zone;
+    private final List<Player> players;
+    private final double minSeparationSquared;
+    private final SpawnRequestOptions options;
+    private final Location[] destinations;
+    private final int[] tries;
+    private final long[] latencyNanos;
+    // Players whose destination chunk is loaded and pinned, in the order they became ready
+    private final ArrayDeque<Integer> ready = new ArrayDeque<>();
+    private final List<Location> taken = new ArrayList<>();
+    private final LongAdder scattered;
+    private final LongAdder failed;
+    private long started;
+    private int nextSearch;
+    private int searching;
+    private int finished;
+    private int moved;
+    private SchedulerAdapter.Task waveTask;
+
+    public ScatterJob(FFSpawn plugin, CommandSender sender, SpawnZone zone, List<Player> players, double minSeparation) {
+        this.plugin = plugin;
+        this.sender = sender;
+        this.zone = zone;
+        this.players = players;
+        this.minSeparationSquared = minSeparation * minSeparation;
+        // The pools stay with respawns; the zone's caches and masks still speed up each search
+        this.options = new SpawnRequestOptions(zone.getName(), false, false, 0);
+        this.destinations = new Location[players.size()];
+        this.tries = new int[players.size()];
+        this.latencyNanos = new long[players.size()];
+        SpawnStats stats = plugin.getSpawnManager().getStats();
+        this.scattered = stats.counter("scatter.players");
+        this.failed = stats.counter("scatter.failed");
+    }
+
+    /**
+     * Start searching and moving. Main thread only.
+     */
+    public void start() {
+        started = System.nanoTime();
+        Arrays.fill(latencyNanos, -1);
+        ConfigManager config = plugin.getConfigManager();
+        int interval = config.getScatterWaveInterval();
+        waveTask = plugin.getSchedulerAdapter().runTimer(this, interval, interval);
+        fillSearches();
+    }
+
+    /**
+     * Move the next wave of players whose destinations are ready.
+     */
+    @Override
+    public void run() {
+        SchedulerAdapter scheduler = plugin.getSchedulerAdapter();
+        int wave = plugin.getConfigManager().getScatterWaveSize();
+        for (int i = 0; i < wave && !ready.isEmpty(); i++) {
+            int index = ready.poll();
+            Player player = players.get(index);
+            Location loc = destinations[index];
+            scheduler.forEntity(player).execute(() -> {
+                if (!player.isOnline()) {
+                    scheduler.run(() -> teleported(index, false));
+                    return;
+                }
+                player.teleportAsync(loc).whenComplete((ok, error) ->
+                        scheduler.run(() -> teleported(index, error == null && ok)));
+            });
+        }
+    }
+
+    private void fillSearches() {
+        int concurrency = plugin.getConfigManager().getScatterConcurrency();
+        while (searching < concurrency && nextSearch < players.size()) {
+            search(nextSearch++);
+        }
+    }
+
+    private void search(int index) {
+        searching++;
+        tries[index]++;
+        SchedulerAdapter scheduler = plugin.getSchedulerAdapter();
+        plugin.getService().findSpawn(players.get(index), options).whenComplete((loc, error) ->
+                scheduler.run(() -> found(index, error == null ? loc : null)));
+    }
+
+    private void found(int index, Location loc) {
+        if (loc != null && tooClose(loc)) {
+            if (tries[index] < MAX_TRIES) {
+                searching--;
+                search(index);
+                return;
+            }
+            loc = null;
+        }
+        if (loc == null) {
+            searching--;
+            done();
+            fillSearches();
+            return;
+        }
+
+        // Claim the spot before its chunk loads, so no later destination lands next to it
+        destinations[index] = loc;
+        taken.add(loc);
+        World world = loc.getWorld();
+        int chunkX = loc.getBlockX() >> 4;
+        int chunkZ = loc.getBlockZ() >> 4;
+        Location claimed = loc;
+        world.getChunkAtAsync(chunkX, chunkZ, true).whenComplete((chunk, error) ->
+                plugin.getSchedulerAdapter().run(() -> {
+                    if (error != null || chunk == null) {
+                        // The chunk couldn't be loaded; give the spot up and search again
+                        taken.remove(claimed);
+                        destinations[index] = null;
+                        searching--;
+                        if (tries[index] < MAX_TRIES) {
+                            search(index);
+                        } else {
+                            done();
+                            fillSearches();
+                        }
+                        return;
+                    }
+                    // Loaded now, so the ticket doesn't load it on the tick
+                    plugin.getChunkTickets().acquire(world, chunkX, chunkZ);
+                    searching--;
+                    ready.add(index);
+                    fillSearches();
+                }));
+    }
+
+    private boolean tooClose(Location loc) {
+        if (minSeparationSquared <= 0) return false;
+        for (Location other : taken) {
+            if (other.getWorld() == loc.getWorld() && other.distanceSquared(loc) < minSeparationSquared) return true;
+        }
+        return false;
+    }
+
+    private void teleported(int index, boolean ok) {
+        Location loc = destinations[index];
+        plugin.getChunkTickets().release(loc.getWorld(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+        if (ok) {
+            latencyNanos[index] = System.nanoTime() - started;
+            moved++;
+        }
+        done();
+    }
+
+    /**
+     * A player is finished with, moved or not.
+     */
+    private void done() {
+        if (++finished < players.size()) return;
+        waveTask.cancel();
+        report();
+    }
+
+    private void report() {
+        long wall = System.nanoTime() - started;
+        int missed = players.size() - moved;
+        scattered.add(moved);
+        failed.add(missed);
+
+        long[] latencies = new long[moved];
+        int n = 0;
+        for (long latency : latencyNanos) {
+            if (latency >= 0) latencies[n++] = latency;
+        }
+        Arrays.sort(latencies);
+
+        sender.sendMessage(ChatColor.GOLD + "=== Scatter: " + zone.getName() + " ===");
+        sender.sendMessage(ChatColor.YELLOW + "Moved: " + ChatColor.WHITE + moved + "/" + players.size() +
+                ChatColor.GRAY + String.format(" in %.0f ms", wall / 1e6));
+        if (moved > 0) {
+            sender.sendMessage(ChatColor.YELLOW + "Per-player latency: " + ChatColor.WHITE +
+                    String.format("min %.0f ms, median %.0f ms, p95 %.0f ms, max %.0f ms",
+                            latencies[0] / 1e6, percentile(latencies, 0.5) / 1e6,
+                            percentile(latencies, 0.95) / 1e6, latencies[moved - 1] / 1e6));
+        }
+        if (missed > 0) {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < players.size(); i++) {
+                if (latencyNanos[i] < 0) names.add(players.get(i).getName());
+            }
+            sender.sendMessage(ChatColor.RED + "Not moved (no destination or teleport failed): " +
+                    String.join(", ", names));
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
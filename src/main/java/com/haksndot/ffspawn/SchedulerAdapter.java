@@ -0,0 +1,177 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs plugin work on the thread that owns it.
+ * <p>
+ * On Paper everything that touches the world runs on the main thread through the Bukkit
+ * scheduler, exactly as before. On Folia there is no main thread: timers and plugin-wide
+ * bookkeeping run on the global region thread, and anything that reads or writes blocks runs
+ * on the thread of the region owning that chunk, through the region scheduler.
+ */
+public final class SchedulerAdapter {
+
+    /**
+     * A repeating task that can be stopped.
+     */
+    public interface Task {
+        void cancel();
+    }
+
+    private final Plugin plugin;
+    private final boolean folia;
+    private final Executor asyncExecutor;
+    private final Executor globalExecutor;
+
+    public SchedulerAdapter(Plugin plugin) {
+        this.plugin = plugin;
+        this.folia = detectFolia();
+        this.asyncExecutor = this::runAsync;
+        this.globalExecutor = this::run;
+    }
+
+    /**
+     * Whether the server runs Folia's regionized threading.
+     */
+    public static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public boolean isFolia() {
+        return folia;
+    }
+
+    /**
+     * Run a task on the main thread (Paper) or the global region thread (Folia) on the next tick.
+     */
+    public void run(Runnable task) {
+        if (folia) {
+            plugin.getServer().getGlobalRegionScheduler().execute(plugin, task);
+        } else {
+            plugin.getServer().getScheduler().runTask(plugin, task);
+        }
+    }
+
+    /**
+     * Repeat a task on the main thread (Paper) or the global region thread (Folia).
+     */
+    public Task runTimer(Runnable task, long delayTicks, long periodTicks) {
+        if (folia) {
+            return plugin.getServer().getGlobalRegionScheduler()
+                    .runAtFixedRate(plugin, t -> task.run(), Math.max(1, delayTicks), periodTicks)::cancel;
+        }
+        return plugin.getServer().getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks)::cancel;
+    }
+
+    /**
+     * Run a task on the main thread (Paper) or the global region thread (Folia) after a delay.
+     */
+    public void runLater(Runnable task, long delayTicks) {
+        if (folia) {
+            plugin.getServer().getGlobalRegionScheduler().runDelayed(plugin, t -> task.run(), Math.max(1, delayTicks));
+        } else {
+            plugin.getServer().getScheduler().runTaskLater(plugin, task, delayTicks);
+        }
+    }
+
+    /**
+     * Run a task off the server threads.
+     */
+    public void runAsync(Runnable task) {
+        if (folia) {
+            plugin.getServer().getAsyncScheduler().runNow(plugin, t -> task.run());
+        } else {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+        }
+    }
+
+    /**
+     * Run a task on the thread owning a chunk: immediately if the caller already owns it,
+     * otherwise on that region's (Folia) or the main (Paper) thread's next tick. A null world
+     * (e.g. one that was unloaded) runs the task like {@link #run}.
+     */
+    public void runAt(World world, int chunkX, int chunkZ, Runnable task) {
+        if (folia && world == null) {
+            run(task);
+        } else if (folia) {
+            if (plugin.getServer().isOwnedByCurrentRegion(world, chunkX, chunkZ)) {
+                task.run();
+            } else {
+                plugin.getServer().getRegionScheduler().execute(plugin, world, chunkX, chunkZ, task);
+            }
+        } else if (plugin.getServer().isPrimaryThread()) {
+            task.run();
+        } else {
+            plugin.getServer().getScheduler().runTask(plugin, task);
+        }
+    }
+
+    /**
+     * Run a task on the thread owning an entity after a delay. Dropped if the entity is removed.
+     */
+    public void runLater(Entity entity, Runnable task, long delayTicks) {
+        if (folia) {
+            entity.getScheduler().runDelayed(plugin, t -> task.run(), null, Math.max(1, delayTicks));
+        } else {
+            plugin.getServer().getScheduler().runTaskLater(plugin, task, delayTicks);
+        }
+    }
+
+    /**
+     * Executor running tasks on the thread owning an entity: immediately if the caller owns it.
+     * On Folia, a task for an entity that is removed before it runs, or was already removed,
+     * runs on the global region thread instead, so it must not touch the entity's surroundings.
+     */
+    public Executor forEntity(Entity entity) {
+        if (folia) {
+            return task -> {
+                if (plugin.getServer().isOwnedByCurrentRegion(entity)) {
+                    task.run();
+                } else if (!entity.getScheduler().execute(plugin, task, () -> run(task), 1L)) {
+                    // Already retired: neither callback will ever run
+                    run(task);
+                }
+            };
+        }
+        return task -> {
+            if (plugin.getServer().isPrimaryThread()) {
+                task.run();
+            } else {
+                plugin.getServer().getScheduler().runTask(plugin, task);
+            }
+        };
+    }
+
+    /**
+     * Whether the current thread may touch blocks of a chunk.
+     */
+    public boolean ownsChunk(World world, int chunkX, int chunkZ) {
+        return folia ? plugin.getServer().isOwnedByCurrentRegion(world, chunkX, chunkZ)
+                : plugin.getServer().isPrimaryThread();
+    }
+
+    public Executor async() {
+        return asyncExecutor;
+    }
+
+    public Executor global() {
+        return globalExecutor;
+    }
+
+    /**
+     * Executor for {@link #runAt}, e.g. to continue a future on the chunk's thread.
+     */
+    public Executor at(World world, int chunkX, int chunkZ) {
+        return task -> runAt(world, chunkX, chunkZ, task);
+    }
+}
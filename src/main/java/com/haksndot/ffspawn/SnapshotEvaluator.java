@@ -0,0 +1,121 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.Tag;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Waterlogged;
+
+import java.util.Set;
+
+/**
+ * Terrain checks for spawn candidates, run against an immutable {@link ChunkSnapshot}.
+ * <p>
+ * Mirrors {@code findSafeY} in {@link SpawnManager} and the built-in biome and ground
+ * {@link SpawnRules}, but reads everything from the snapshot, so a batch of columns from one
+ * chunk can be evaluated off the main thread. The safety settings are copied at construction.
+ */
+public class SnapshotEvaluator {
+
+    /** Result for a column with no safe spot. */
+    public static final int UNSAFE = Integer.MIN_VALUE;
+
+    private final boolean requireSolidGround;
+    private final int minY;
+    private final int maxY;
+    private final Set<Biome> blockedBiomes;
+    private final BlockRules rules;
+    private final int worldMinHeight;
+    private final int worldMaxHeight;
+
+    public SnapshotEvaluator(ConfigManager config, World world) {
+        this.requireSolidGround = config.isRequireSolidGround();
+        this.minY = config.getMinY();
+        this.maxY = config.getMaxY();
+        this.blockedBiomes = config.getBlockedBiomeSet();
+        this.rules = config.getBlockRules();
+        this.worldMinHeight = world.getMinHeight();
+        this.worldMaxHeight = world.getMaxHeight();
+    }
+
+    /**
+     * Evaluate several columns of the snapshot's chunk.
+     *
+     * @return Feet Y of the safe spot for each column, or {@link #UNSAFE}
+     */
+    public int[] evaluate(ChunkSnapshot snapshot, int[] xs, int[] zs) {
+        int[] result = new int[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            result[i] = evaluate(snapshot, xs[i] & 15, zs[i] & 15);
+        }
+        return result;
+    }
+
+    private int evaluate(ChunkSnapshot snapshot, int x, int z) {
+        int feetY = findSafeY(snapshot, x, z);
+        if (feetY == UNSAFE) return UNSAFE;
+
+        if (!blockedBiomes.isEmpty() && blockedBiomes.contains(snapshot.getBiome(x, feetY, z))) return UNSAFE;
+
+        if (requireSolidGround && !isSafe(snapshot, x, feetY, z)) return UNSAFE;
+        return feetY;
+    }
+
+    private int findSafeY(ChunkSnapshot snapshot, int x, int z) {
+        int surfaceY = surfaceY(snapshot, x, z);
+
+        if (surfaceY < minY) {
+            // Surface is below minimum - look for a safe spot above, as the live search does
+            for (int y = minY; y <= Math.min(maxY, worldMaxHeight - 2); y++) {
+                Material below = type(snapshot, x, y - 1, z);
+                Material block = type(snapshot, x, y, z);
+                Material above = type(snapshot, x, y + 1, z);
+                if (rules.isSolid(below) && !rules.isSolid(block) && block != Material.LAVA && !rules.isSolid(above)) {
+                    return y;
+                }
+            }
+            return UNSAFE;
+        }
+
+        if (maxY < 255 && surfaceY > maxY) return UNSAFE;
+        return surfaceY + 1;
+    }
+
+    /**
+     * Top block of a column in the sense of MOTION_BLOCKING_NO_LEAVES. The snapshot's own
+     * heightmap is MOTION_BLOCKING, so leaves and anything they overhang are stepped through.
+     */
+    private int surfaceY(ChunkSnapshot snapshot, int x, int z) {
+        int y = snapshot.getHighestBlockYAt(x, z);
+        while (y > worldMinHeight && !blocksMotion(snapshot, x, y, z)) {
+            y--;
+        }
+        return y;
+    }
+
+    private boolean blocksMotion(ChunkSnapshot snapshot, int x, int y, int z) {
+        Material material = snapshot.getBlockType(x, y, z);
+        if (material.isAir() || Tag.LEAVES.isTagged(material)) return false;
+        if (rules.isSolid(material) || material == Material.WATER || material == Material.LAVA
+                || material == Material.BUBBLE_COLUMN) {
+            return true;
+        }
+        BlockData data = snapshot.getBlockData(x, y, z);
+        return data instanceof Waterlogged waterlogged && waterlogged.isWaterlogged();
+    }
+
+    private boolean isSafe(ChunkSnapshot snapshot, int x, int y, int z) {
+        Material ground = type(snapshot, x, y - 1, z);
+        Material feet = type(snapshot, x, y, z);
+        Material head = type(snapshot, x, y + 1, z);
+
+        return rules.isGround(ground) && rules.isPassable(feet) && rules.isPassable(head);
+    }
+
+    private Material type(ChunkSnapshot snapshot, int x, int y, int z) {
+        if (y < worldMinHeight || y >= worldMaxHeight) return Material.AIR;
+        return snapshot.getBlockType(x, y, z);
+    }
+}
@@ -0,0 +1,176 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * In-game micro benchmark for the spawn block event fast paths.
+ * Compares the old string-keyed lookup and ItemMeta-cloning item check against the
+ * chunk-filtered registry lookup and the read-only persistent data check, using the
+ * server's real spawn blocks and item implementation.
+ * <p>
+ * The spawn blocks are copied into a scratch registry on the main thread, and the timed loops
+ * run on an async thread against that copy, so the benchmark neither stalls the tick nor holds
+ * the live registry's lock.
+ */
+public class SpawnBlockBenchmark {
+
+    private static final int POSITIONS = 4096;
+    private static final int WARMUP = 100_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private final FFSpawn plugin;
+    private final SpawnBlockManager manager;
+
+    // Written to so the JIT cannot drop the measured work
+    private long sink;
+
+    public SpawnBlockBenchmark(FFSpawn plugin, SpawnBlockManager manager) {
+        this.plugin = plugin;
+        this.manager = manager;
+    }
+
+    /**
+     * Run the benchmark around the given center and report per-event costs. Main thread only;
+     * the measuring runs asynchronously.
+     *
+     * @param eventsPerSecond Block break/place rate used to project the cost per tick
+     * @param done            Run on the main thread once the results or the failure were sent
+     */
+    public void run(CommandSender sender, World world, int centerX, int centerZ, int eventsPerSecond, Runnable done) {
+        Random random = new Random(42);
+        int[] xs = new int[POSITIONS];
+        int[] ys = new int[POSITIONS];
+        int[] zs = new int[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            xs[i] = centerX + random.nextInt(2048) - 1024;
+            ys[i] = random.nextInt(128) - 16;
+            zs[i] = centerZ + random.nextInt(2048) - 1024;
+        }
+
+        // Rebuild the string-keyed index the way it used to be stored, next to a scratch copy
+        // of the registry
+        Set<String> legacyKeys = new HashSet<>();
+        SpawnBlockRegistry registry = new SpawnBlockRegistry();
+        for (SpawnBlock block : manager.getAllSpawnBlocks()) {
+            legacyKeys.add(block.getLocationKey());
+            registry.add(block);
+        }
+        String worldName = world.getName();
+
+        ItemStack[] items = {
+                manager.createSpawnBlockItem(),
+                new ItemStack(Material.LODESTONE),
+                new ItemStack(Material.STONE)
+        };
+
+        SchedulerAdapter scheduler = plugin.getSchedulerAdapter();
+        scheduler.runAsync(() -> {
+            double[] results;
+            try {
+                // Warm up both variants before measuring
+                legacyBreaks(worldName, legacyKeys, xs, ys, zs, WARMUP);
+                filteredBreaks(registry, worldName, xs, ys, zs, WARMUP);
+                legacyItemChecks(items, WARMUP);
+                viewItemChecks(items, WARMUP);
+
+                results = new double[]{
+                        nanosPerOp(() -> legacyBreaks(worldName, legacyKeys, xs, ys, zs, ITERATIONS)),
+                        nanosPerOp(() -> filteredBreaks(registry, worldName, xs, ys, zs, ITERATIONS)),
+                        nanosPerOp(() -> legacyItemChecks(items, ITERATIONS)),
+                        nanosPerOp(() -> viewItemChecks(items, ITERATIONS))
+                };
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Spawn block benchmark failed: " + e);
+                scheduler.run(() -> {
+                    try {
+                        sender.sendMessage(ChatColor.RED + "Benchmark failed: " + e.getMessage());
+                    } finally {
+                        done.run();
+                    }
+                });
+                return;
+            }
+
+            scheduler.run(() -> {
+                try {
+                    sender.sendMessage(ChatColor.GOLD + "=== Spawn Block Event Benchmark ===");
+                    sender.sendMessage(ChatColor.GRAY + "" + registry.size() + " spawn block(s), " +
+                            ITERATIONS + " events per run, " + eventsPerSecond + " events/s projected");
+                    report(sender, "Break lookup (string key)", results[0], eventsPerSecond);
+                    report(sender, "Break lookup (chunk filter)", results[1], eventsPerSecond);
+                    report(sender, "Place item check (getItemMeta)", results[2], eventsPerSecond);
+                    report(sender, "Place item check (PDC view)", results[3], eventsPerSecond);
+                } finally {
+                    done.run();
+                }
+            });
+        });
+    }
+
+    private void legacyBreaks(String worldName, Set<String> keys, int[] xs, int[] ys, int[] zs, int count) {
+        long hits = 0;
+        for (int i = 0; i < count; i++) {
+            int p = i & (POSITIONS - 1);
+            if (keys.contains(worldName + "," + xs[p] + "," + ys[p] + "," + zs[p])) hits++;
+        }
+        sink += hits;
+    }
+
+    /**
+     * Same lookup as {@link SpawnBlockManager#isSpawnBlock(World, int, int, int)}, on the copy.
+     */
+    private void filteredBreaks(SpawnBlockRegistry registry, String worldName, int[] xs, int[] ys, int[] zs, int count) {
+        long hits = 0;
+        int worldIdx = registry.getWorldIndex(worldName);
+        for (int i = 0; i < count; i++) {
+            int p = i & (POSITIONS - 1);
+            if (!registry.hasBlocksInChunk(worldIdx, xs[p] >> 4, zs[p] >> 4)) continue;
+            if (registry.find(worldIdx, xs[p], ys[p], zs[p]) >= 0) hits++;
+        }
+        sink += hits;
+    }
+
+    private void legacyItemChecks(ItemStack[] items, int count) {
+        long hits = 0;
+        for (int i = 0; i < count; i++) {
+            ItemStack item = items[i % items.length];
+            if (item.getType() != Material.LODESTONE) continue;
+            ItemMeta meta = item.getItemMeta();
+            if (meta != null && meta.getPersistentDataContainer().has(manager.getSpawnBlockKey(), PersistentDataType.BYTE)) {
+                hits++;
+            }
+        }
+        sink += hits;
+    }
+
+    private void viewItemChecks(ItemStack[] items, int count) {
+        long hits = 0;
+        for (int i = 0; i < count; i++) {
+            if (manager.isSpawnBlockItem(items[i % items.length])) hits++;
+        }
+        sink += hits;
+    }
+
+    private double nanosPerOp(Runnable run) {
+        long start = System.nanoTime();
+        run.run();
+        return (System.nanoTime() - start) / (double) ITERATIONS;
+    }
+
+    private void report(CommandSender sender, String label, double nanos, int eventsPerSecond) {
+        double microsPerTick = nanos * eventsPerSecond / 20.0 / 1000.0;
+        sender.sendMessage(ChatColor.YELLOW + label + ": " + ChatColor.WHITE +
+                String.format("%.1f ns/event", nanos) + ChatColor.GRAY +
+                String.format(" (%.1f µs/tick)", microsPerTick));
+    }
+}
@@ -0,0 +1,353 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.block.BlockFace;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of spawn block changes, written off the main thread.
+ * <p>
+ * Changes are queued in O(1) and flushed by a single writer thread after a short delay;
+ * repeated changes to the same position within one flush are merged. A compaction request
+ * travels through the same queue, so the snapshot it carries is written (via atomic rename)
+ * exactly after the changes it already contains, and the journal is then truncated.
+ * Every record carries a length and CRC32, so a torn tail left by a crash is detected and
+ * ignored when the journal is replayed on top of the last snapshot.
+ */
+public class SpawnBlockJournal {
+
+    /**
+     * Writes a full snapshot of the given blocks to a file.
+     */
+    public interface SnapshotWriter {
+        void write(List<SpawnBlock> blocks, Path target) throws IOException;
+    }
+
+    /**
+     * Receives journal records during replay.
+     */
+    public interface Replayer {
+        void add(SpawnBlock block);
+
+        void remove(String worldName, int x, int y, int z);
+    }
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+
+    private final Logger logger;
+    private final Path journalPath;
+    private final Path snapshotPath;
+    private final SnapshotWriter snapshotWriter;
+    private final ScheduledExecutorService executor;
+    private final ConcurrentLinkedQueue<Object> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicInteger entriesSinceCompaction = new AtomicInteger();
+    private volatile long flushDelayMillis = 100;
+    private FileChannel channel;
+
+    public SpawnBlockJournal(Logger logger, Path journalPath, Path snapshotPath, SnapshotWriter snapshotWriter) {
+        this.logger = logger;
+        this.journalPath = journalPath;
+        this.snapshotPath = snapshotPath;
+        this.snapshotWriter = snapshotWriter;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "FFSpawn-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void setFlushDelayMillis(long flushDelayMillis) {
+        this.flushDelayMillis = Math.max(0, flushDelayMillis);
+    }
+
+    public void appendAdd(SpawnBlock block) {
+        enqueue(new Entry(OP_ADD, block.getWorldName(), block.getX(), block.getY(), block.getZ(), block));
+    }
+
+    public void appendRemove(String worldName, int x, int y, int z) {
+        enqueue(new Entry(OP_REMOVE, worldName, x, y, z, null));
+    }
+
+    /**
+     * Queue a snapshot of the current blocks. It is written after every change queued before
+     * this call, and the journal is truncated once the snapshot is in place.
+     */
+    public void requestCompaction(List<SpawnBlock> blocks) {
+        pending.add(new Compaction(blocks, entriesSinceCompaction.get()));
+        scheduleFlush(0);
+    }
+
+    /**
+     * Number of changes written or queued since the last compaction.
+     */
+    public int getEntriesSinceCompaction() {
+        return entriesSinceCompaction.get();
+    }
+
+    /**
+     * Block until everything queued so far is on disk.
+     */
+    public void flushSync() {
+        if (executor.isShutdown()) return;
+        try {
+            executor.submit(this::flush).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warning("Failed to flush spawn block journal: " + e.getCause());
+        }
+    }
+
+    /**
+     * Flush pending work and stop the writer thread.
+     */
+    public void close() {
+        flushSync();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeChannel();
+    }
+
+    /**
+     * Whether the journal holds any records (or leftovers of a damaged one).
+     */
+    public boolean hasData() {
+        try {
+            return Files.exists(journalPath) && Files.size(journalPath) > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Replay the journal through the given callbacks, stopping at the first damaged record.
+     *
+     * @return number of records replayed
+     */
+    public int replay(Replayer replayer) {
+        if (!Files.exists(journalPath)) return 0;
+
+        byte[] data;
+        try {
+            data = Files.readAllBytes(journalPath);
+        } catch (IOException e) {
+            logger.warning("Failed to read spawn block journal: " + e.getMessage());
+            return 0;
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        int count = 0;
+        while (true) {
+            try {
+                int length = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    logger.warning("Spawn block journal has a damaged record after " + count + " entries; ignoring the rest.");
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                int crc = in.readInt();
+                if (crc != checksum(payload)) {
+                    logger.warning("Spawn block journal has a torn record after " + count + " entries; ignoring the rest.");
+                    break;
+                }
+                applyRecord(payload, replayer);
+                count++;
+            } catch (EOFException e) {
+                // Clean end of file, or a record cut short by a crash
+                break;
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warning("Failed to replay spawn block journal record " + count + ": " + e.getMessage());
+                break;
+            }
+        }
+        entriesSinceCompaction.addAndGet(count);
+        return count;
+    }
+
+    private void enqueue(Entry entry) {
+        pending.add(entry);
+        entriesSinceCompaction.incrementAndGet();
+        scheduleFlush(flushDelayMillis);
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        if (executor.isShutdown()) return;
+        if (flushScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Drain the queue on the writer thread. Changes between compactions are merged so only
+     * the last change per position is written.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+
+        Map<String, Entry> batch = new LinkedHashMap<>();
+        Object item;
+        while ((item = pending.poll()) != null) {
+            if (item instanceof Entry entry) {
+                String key = entry.worldName + "," + entry.x + "," + entry.y + "," + entry.z;
+                batch.remove(key);
+                batch.put(key, entry);
+            } else if (item instanceof Compaction compaction) {
+                writeEntries(batch.values());
+                batch.clear();
+                compact(compaction);
+            }
+        }
+        writeEntries(batch.values());
+    }
+
+    private void writeEntries(Collection<Entry> entries) {
+        if (entries.isEmpty()) return;
+
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(buffer);
+            for (Entry entry : entries) {
+                byte[] payload = encode(entry);
+                out.writeInt(payload.length);
+                out.write(payload);
+                out.writeInt(checksum(payload));
+            }
+
+            FileChannel ch = channel();
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                ch.write(bytes);
+            }
+            ch.force(false);
+        } catch (IOException e) {
+            logger.warning("Failed to write spawn block journal: " + e.getMessage());
+        }
+    }
+
+    private void compact(Compaction compaction) {
+        Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try {
+            snapshotWriter.write(compaction.blocks, temp);
+            try {
+                Files.move(temp, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            // Everything in the journal is now part of the snapshot
+            FileChannel ch = channel();
+            ch.truncate(0);
+            ch.force(true);
+            entriesSinceCompaction.addAndGet(-compaction.entriesCovered);
+        } catch (IOException e) {
+            logger.warning("Failed to compact spawn blocks: " + e.getMessage());
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            Files.createDirectories(journalPath.getParent());
+            channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close spawn block journal: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    private static byte[] encode(Entry entry) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(entry.op);
+        out.writeUTF(entry.worldName);
+        out.writeInt(entry.x);
+        out.writeInt(entry.y);
+        out.writeInt(entry.z);
+        if (entry.op == OP_ADD) {
+            SpawnBlock block = entry.block;
+            out.writeUTF(block.getDirection().name());
+            UUID owner = block.getOwnerUuid();
+            out.writeBoolean(owner != null);
+            if (owner != null) {
+                out.writeLong(owner.getMostSignificantBits());
+                out.writeLong(owner.getLeastSignificantBits());
+            }
+            out.writeUTF(block.getOwnerName() != null ? block.getOwnerName() : "Unknown");
+            out.writeLong(block.getPlacedAt());
+        }
+        return buffer.toByteArray();
+    }
+
+    private static void applyRecord(byte[] payload, Replayer replayer) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        String worldName = in.readUTF();
+        int x = in.readInt();
+        int y = in.readInt();
+        int z = in.readInt();
+
+        if (op == OP_ADD) {
+            BlockFace direction = BlockFace.valueOf(in.readUTF());
+            UUID owner = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+            String ownerName = in.readUTF();
+            long placedAt = in.readLong();
+            replayer.add(new SpawnBlock(worldName, x, y, z, direction, owner, ownerName, placedAt));
+        } else if (op == OP_REMOVE) {
+            replayer.remove(worldName, x, y, z);
+        } else {
+            throw new IOException("Unknown journal op " + op);
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private record Entry(byte op, String worldName, int x, int y, int z, SpawnBlock block) {}
+
+    private record Compaction(List<SpawnBlock> blocks, int entriesCovered) {}
+}
@@ -2,6 +2,7 @@ package com.haksndot.ffspawn;
 
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Player;
@@ -9,9 +10,17 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.List;
+
 public class SpawnBlockListener implements Listener {
 
     private final FFSpawn plugin;
@@ -70,9 +79,9 @@ public class SpawnBlockListener implements Listener {
     @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
     public void onBlockBreak(BlockBreakEvent event) {
         Block block = event.getBlock();
-        Location loc = block.getLocation();
+        if (!manager.isSpawnBlock(block)) return;
 
-        if (!manager.isSpawnBlock(loc)) return;
+        Location loc = block.getLocation();
 
         Player player = event.getPlayer();
         SpawnBlock removed = manager.removeSpawnBlock(loc);
@@ -86,6 +95,68 @@ public class SpawnBlockListener implements Listener {
         }
     }
 
+    // Spawn blocks destroyed without a player break are unregistered right away, so stale
+    // entries never reach the spawn search.
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        unregisterDestroyed(event.blockList(), "explosion");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        unregisterDestroyed(event.blockList(), "explosion");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        unregisterDestroyed(event.getBlock(), "fire");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        if (event.getTo() == Material.LODESTONE) return;
+        unregisterDestroyed(event.getBlock(), event.getEntityType().name().toLowerCase());
+    }
+
+    // Pistons would move a spawn block away from its registered position, so they may not touch it
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        if (containsSpawnBlock(event.getBlocks())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        if (containsSpawnBlock(event.getBlocks())) {
+            event.setCancelled(true);
+        }
+    }
+
+    private boolean containsSpawnBlock(List<Block> blocks) {
+        for (Block block : blocks) {
+            if (manager.isSpawnBlock(block)) return true;
+        }
+        return false;
+    }
+
+    private void unregisterDestroyed(List<Block> blocks, String cause) {
+        for (Block block : blocks) {
+            unregisterDestroyed(block, cause);
+        }
+    }
+
+    private void unregisterDestroyed(Block block, String cause) {
+        if (!manager.isSpawnBlock(block)) return;
+
+        if (manager.removeSpawnBlock(block.getLocation()) != null) {
+            plugin.getLogger().info("Spawn block at " + block.getX() + ", " + block.getY() + ", " +
+                    block.getZ() + " was destroyed by " + cause);
+        }
+    }
+
     private BlockFace getCardinalDirection(float yaw) {
         yaw = (yaw % 360 + 360) % 360;
         if (yaw >= 315 || yaw < 45) return BlockFace.SOUTH;
@@ -6,6 +6,8 @@ import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -16,7 +18,14 @@ import org.bukkit.persistence.PersistentDataType;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 public class SpawnBlockManager {
 
@@ -26,26 +35,110 @@ public class SpawnBlockManager {
     private final ConfigManager configManager;
     private final NamespacedKey spawnBlockKey;
     private final NamespacedKey recipeKey;
-    private final Map<String, SpawnBlock> spawnBlocks = new HashMap<>();
-    private File spawnBlocksFile;
+    // Guarded by this: on Folia, block events and spawns arrive from several region threads
+    private final SpawnBlockRegistry registry = new SpawnBlockRegistry();
+    private volatile WorldSlot worldSlot;
+    private final File snapshotFile;
+    private final File legacyFile;
+    private final SpawnBlockJournal journal;
+    // False while an unreadable snapshot could not be moved aside, so it is never overwritten
+    private volatile boolean snapshotWritable = true;
 
     public SpawnBlockManager(FFSpawn plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.spawnBlockKey = new NamespacedKey(plugin, "spawn_block");
         this.recipeKey = new NamespacedKey(plugin, "spawn_block_recipe");
+        this.snapshotFile = new File(plugin.getDataFolder(), SpawnBlockSnapshot.FILE_NAME);
+        this.legacyFile = new File(plugin.getDataFolder(), "spawn-blocks.yml");
+        this.journal = new SpawnBlockJournal(plugin.getLogger(),
+                new File(plugin.getDataFolder(), "spawn-blocks.journal").toPath(),
+                snapshotFile.toPath(), SpawnBlockSnapshot::write);
 
         if (configManager.isSpawnBlocksEnabled() && configManager.isSpawnBlockRecipeEnabled()) {
             registerRecipe();
         }
     }
 
-    public void loadSpawnBlocks() {
-        spawnBlocks.clear();
-        spawnBlocksFile = new File(plugin.getDataFolder(), "spawn-blocks.yml");
-        if (!spawnBlocksFile.exists()) return;
+    public synchronized void loadSpawnBlocks() {
+        // Make sure queued changes are on disk before reading them back
+        journal.flushSync();
+        journal.setFlushDelayMillis(configManager.getJournalFlushDelayMillis());
 
-        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(spawnBlocksFile);
+        registry.clear();
+        onBlocksChanged();
+
+        boolean converted = false;
+        snapshotWritable = true;
+        if (snapshotFile.exists()) {
+            try {
+                SpawnBlockSnapshot.read(snapshotFile.toPath(), registry);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to read " + snapshotFile.getName() + ": " + e.getMessage());
+                setAsideUnreadableSnapshot();
+            }
+        } else if (legacyFile.exists()) {
+            // One-time conversion from the old YAML storage
+            loadLegacyYaml();
+            converted = true;
+        }
+
+        // Apply changes made after the last snapshot, e.g. before a crash
+        boolean replayed = false;
+        if (journal.hasData()) {
+            int count = journal.replay(new SpawnBlockJournal.Replayer() {
+                @Override
+                public void add(SpawnBlock block) {
+                    registry.add(block);
+                }
+
+                @Override
+                public void remove(String worldName, int x, int y, int z) {
+                    registry.remove(worldName, x, y, z);
+                }
+            });
+            plugin.getLogger().info("Replayed " + count + " spawn block change(s) from the journal.");
+            replayed = true;
+        }
+
+        if ((replayed || converted) && snapshotWritable) {
+            // Fold the journal (or the legacy file) into a fresh snapshot right away
+            journal.requestCompaction(snapshotBlocks());
+            journal.flushSync();
+        }
+        if (converted && snapshotFile.exists()) {
+            File backup = new File(plugin.getDataFolder(), "spawn-blocks.yml.bak");
+            if (legacyFile.renameTo(backup)) {
+                plugin.getLogger().info("Converted spawn-blocks.yml to " + snapshotFile.getName() +
+                        " (old file kept as " + backup.getName() + ").");
+            }
+        }
+
+        onBlocksChanged();
+        plugin.getLogger().info("Loaded " + registry.size() + " spawn block(s).");
+    }
+
+    /**
+     * Move an unreadable snapshot out of the way, so the next snapshot doesn't replace the only
+     * copy of its spawn blocks. If it can't be moved, no snapshot is written until a reload reads
+     * it successfully; changes are still kept in the journal.
+     */
+    private void setAsideUnreadableSnapshot() {
+        // A partial read may hold garbage
+        registry.clear();
+        File corrupt = new File(plugin.getDataFolder(), snapshotFile.getName() + ".corrupt-" + System.currentTimeMillis());
+        if (snapshotFile.renameTo(corrupt)) {
+            plugin.getLogger().severe("Moved it to " + corrupt.getName() +
+                    "; its spawn blocks are not loaded. Restore a backup and run /ffs reload to recover them.");
+        } else {
+            snapshotWritable = false;
+            plugin.getLogger().severe("Could not move it aside; spawn blocks will not be saved to " +
+                    snapshotFile.getName() + " until it can be read.");
+        }
+    }
+
+    private void loadLegacyYaml() {
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(legacyFile);
         ConfigurationSection blocksSection = yaml.getConfigurationSection("blocks");
         if (blocksSection == null) return;
 
@@ -65,22 +158,72 @@ public class SpawnBlockManager {
                 long placedAt = bs.getLong("placed-at", System.currentTimeMillis());
 
                 SpawnBlock block = new SpawnBlock(worldName, x, y, z, direction, ownerUuid, ownerName, placedAt);
-                spawnBlocks.put(block.getLocationKey(), block);
+                registry.add(block);
             } catch (Exception e) {
                 plugin.getLogger().warning("Failed to load spawn block '" + key + "': " + e.getMessage());
             }
         }
-        plugin.getLogger().info("Loaded " + spawnBlocks.size() + " spawn block(s).");
     }
 
+    /**
+     * Write all spawn blocks to a human-readable YAML file in the old format, off the main thread.
+     *
+     * @param onDone Called on the main thread with the file, or null if writing failed
+     */
+    public void exportYaml(File target, Consumer<File> onDone) {
+        List<SpawnBlock> blocks = snapshotBlocks();
+        plugin.getSchedulerAdapter().runAsync(() -> {
+            boolean ok;
+            try {
+                writeYamlSnapshot(blocks, target.toPath());
+                ok = true;
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to export spawn blocks: " + e.getMessage());
+                ok = false;
+            }
+            File result = ok ? target : null;
+            plugin.getSchedulerAdapter().run(() -> onDone.accept(result));
+        });
+    }
+
+    /**
+     * Queue a full binary snapshot of all spawn blocks. The file is written off the main thread
+     * and replaced atomically; the journal is truncated afterwards.
+     */
     public void saveSpawnBlocks() {
-        if (spawnBlocksFile == null) {
-            spawnBlocksFile = new File(plugin.getDataFolder(), "spawn-blocks.yml");
+        if (!snapshotWritable) return;
+        journal.requestCompaction(snapshotBlocks());
+    }
+
+    /**
+     * Compact the journal if anything changed since the last snapshot.
+     */
+    public void compactIfNeeded() {
+        if (journal.getEntriesSinceCompaction() > 0) {
+            saveSpawnBlocks();
         }
+    }
 
+    /**
+     * Write a final snapshot and stop the journal writer. Blocks until everything is on disk.
+     */
+    public void shutdown() {
+        saveSpawnBlocks();
+        journal.close();
+    }
+
+    private synchronized List<SpawnBlock> snapshotBlocks() {
+        List<SpawnBlock> blocks = new ArrayList<>(registry.size());
+        for (int i = 0; i < registry.size(); i++) {
+            blocks.add(registry.get(i));
+        }
+        return blocks;
+    }
+
+    private static void writeYamlSnapshot(List<SpawnBlock> blocks, Path target) throws IOException {
         YamlConfiguration yaml = new YamlConfiguration();
         int i = 0;
-        for (SpawnBlock block : spawnBlocks.values()) {
+        for (SpawnBlock block : blocks) {
             String path = "blocks.block" + i++;
             yaml.set(path + ".world", block.getWorldName());
             yaml.set(path + ".x", block.getX());
@@ -94,10 +237,10 @@ public class SpawnBlockManager {
             yaml.set(path + ".placed-at", block.getPlacedAt());
         }
 
-        try {
-            yaml.save(spawnBlocksFile);
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to save spawn blocks: " + e.getMessage());
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(yaml.saveToString().getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
         }
     }
 
@@ -151,44 +294,140 @@ public class SpawnBlockManager {
         return item;
     }
 
+    /**
+     * Check the item's persistent data through Paper's read-only view, without cloning its ItemMeta.
+     */
     public boolean isSpawnBlockItem(ItemStack item) {
-        if (item == null || item.getType() != Material.LODESTONE) return false;
-        ItemMeta meta = item.getItemMeta();
-        if (meta == null) return false;
-        return meta.getPersistentDataContainer().has(spawnBlockKey, PersistentDataType.BYTE);
+        if (item == null || item.getType() != Material.LODESTONE || !item.hasItemMeta()) return false;
+        return item.getPersistentDataContainer().has(spawnBlockKey, PersistentDataType.BYTE);
     }
 
-    public void addSpawnBlock(SpawnBlock block) {
-        spawnBlocks.put(block.getLocationKey(), block);
-        saveSpawnBlocks();
+    public synchronized void addSpawnBlock(SpawnBlock block) {
+        registry.add(block);
+        onBlocksChanged();
+        journal.appendAdd(block);
     }
 
-    public SpawnBlock removeSpawnBlock(Location loc) {
-        String key = locationKey(loc);
-        SpawnBlock removed = spawnBlocks.remove(key);
-        if (removed != null) saveSpawnBlocks();
+    public synchronized SpawnBlock removeSpawnBlock(Location loc) {
+        SpawnBlock removed = registry.remove(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        if (removed != null) {
+            onBlocksChanged();
+            journal.appendRemove(removed.getWorldName(), removed.getX(), removed.getY(), removed.getZ());
+        }
         return removed;
     }
 
-    public boolean isSpawnBlock(Location loc) {
-        return spawnBlocks.containsKey(locationKey(loc));
+    public synchronized boolean isSpawnBlock(Location loc) {
+        return registry.find(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()) >= 0;
+    }
+
+    /**
+     * Allocation-free check used by block event handlers.
+     */
+    public boolean isSpawnBlock(Block block) {
+        return isSpawnBlock(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Allocation-free check. Positions in chunks without spawn blocks are rejected after one
+     * primitive lookup in the per-chunk presence index.
+     */
+    public synchronized boolean isSpawnBlock(World world, int x, int y, int z) {
+        int worldIdx = worldIndex(world);
+        if (!registry.hasBlocksInChunk(worldIdx, x >> 4, z >> 4)) return false;
+        return registry.find(worldIdx, x, y, z) >= 0;
+    }
+
+    /**
+     * Whether any spawn block is registered in the given chunk.
+     */
+    public synchronized boolean hasSpawnBlocksInChunk(World world, int chunkX, int chunkZ) {
+        return registry.hasBlocksInChunk(worldIndex(world), chunkX, chunkZ);
     }
 
-    public SpawnBlock getSpawnBlock(Location loc) {
-        return spawnBlocks.get(locationKey(loc));
+    public synchronized SpawnBlock getSpawnBlock(Location loc) {
+        int row = registry.find(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        return row >= 0 ? registry.get(row) : null;
     }
 
+    /**
+     * Materialize every spawn block. Intended for commands and saving, not hot paths.
+     */
     public Collection<SpawnBlock> getAllSpawnBlocks() {
-        return Collections.unmodifiableCollection(spawnBlocks.values());
+        return Collections.unmodifiableList(snapshotBlocks());
     }
 
-    public int getSpawnBlockCount() {
-        return spawnBlocks.size();
+    /**
+     * Cached headroom verdict for a spawn block, or {@link SpawnBlockRegistry#VERDICT_UNKNOWN}
+     * if verification is off or the verdict is missing or too old.
+     */
+    public synchronized byte getVerdict(SpawnBlock block) {
+        if (!configManager.isVerificationEnabled()) return SpawnBlockRegistry.VERDICT_UNKNOWN;
+
+        int row = registry.find(block.getWorldName(), block.getX(), block.getY(), block.getZ());
+        if (row < 0) return SpawnBlockRegistry.VERDICT_UNKNOWN;
+        if (System.currentTimeMillis() - registry.getVerifiedAt(row) > configManager.getVerificationMaxAgeMillis()) {
+            return SpawnBlockRegistry.VERDICT_UNKNOWN;
+        }
+        return registry.getVerdict(row);
     }
 
-    private String locationKey(Location loc) {
-        return loc.getWorld().getName() + "," + loc.getBlockX() + "," + loc.getBlockY() + "," + loc.getBlockZ();
+    public synchronized void setVerdict(SpawnBlock block, byte verdict) {
+        int row = registry.find(block.getWorldName(), block.getX(), block.getY(), block.getZ());
+        if (row >= 0) {
+            registry.setVerdict(row, verdict, System.currentTimeMillis());
+        }
     }
 
+    /**
+     * Forget the verdicts of all spawn blocks in a chunk, e.g. after a block changed there.
+     */
+    public synchronized void invalidateVerdicts(World world, int chunkX, int chunkZ) {
+        int worldIdx = worldIndex(world);
+        for (int row = registry.firstInChunk(worldIdx, chunkX, chunkZ); row >= 0; row = registry.nextInChunk(row)) {
+            registry.setVerdict(row, SpawnBlockRegistry.VERDICT_UNKNOWN, 0L);
+        }
+    }
+
+    /**
+     * Pick a spawn block uniformly at random, or null if there are none.
+     */
+    public synchronized SpawnBlock getRandomSpawnBlock() {
+        int count = registry.size();
+        if (count == 0) return null;
+        return registry.get(ThreadLocalRandom.current().nextInt(count));
+    }
+
+    public synchronized int getSpawnBlockCount() {
+        return registry.size();
+    }
+
+    /**
+     * Registry index of a world, cached for the last world seen since most events come from one world.
+     */
+    private int worldIndex(World world) {
+        WorldSlot slot = worldSlot;
+        if (slot == null || slot.world != world) {
+            slot = new WorldSlot(world, registry.getWorldIndex(world.getName()));
+            worldSlot = slot;
+        }
+        return slot.index;
+    }
+
+    private record WorldSlot(World world, int index) {}
+
+    /**
+     * Tell the spawn manager to rebuild its sampler.
+     */
+    private void onBlocksChanged() {
+        // A world may have gained its first block or the registry was rebuilt
+        worldSlot = null;
+        if (plugin.getSpawnManager() != null) {
+            plugin.getSpawnManager().invalidateSampler();
+        }
+    }
+
+    SpawnBlockRegistry getRegistry() { return registry; }
+
     public NamespacedKey getSpawnBlockKey() { return spawnBlockKey; }
 }
@@ -0,0 +1,371 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.block.BlockFace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Columnar store of spawn blocks.
+ * Each block is a row across parallel primitive arrays; world and owner names live once in
+ * string tables and rows refer to them by index. Rows are found through one
+ * {@link LongIntHashMap} per world keyed by the packed block position, so lookups never allocate.
+ * Rows in the same chunk are chained in a doubly linked list hanging off a per-world chunk map,
+ * which doubles as a presence filter: events in chunks without spawn blocks are rejected after
+ * one primitive lookup.
+ * Removing a row moves the last row into its place, so row indices are not stable across removals.
+ */
+public class SpawnBlockRegistry {
+
+    /** Headroom verdicts cached per row by background verification. */
+    public static final byte VERDICT_UNKNOWN = 0;
+    public static final byte VERDICT_SAFE = 1;
+    public static final byte VERDICT_UNSAFE = 2;
+
+    private static final BlockFace[] DIRECTIONS = {BlockFace.SOUTH, BlockFace.WEST, BlockFace.NORTH, BlockFace.EAST};
+
+    // World and owner name tables
+    private final List<String> worldNames = new ArrayList<>();
+    private final Map<String, Integer> worldIndex = new HashMap<>();
+    private final List<LongIntHashMap> rowsByWorld = new ArrayList<>();
+    private final List<LongIntHashMap> chunkHeads = new ArrayList<>();
+    private final List<String> ownerNames = new ArrayList<>();
+    private final Map<String, Integer> ownerNameIndex = new HashMap<>();
+
+    // Row columns
+    private int size;
+    private int[] world = new int[16];
+    private long[] pos = new long[16];
+    private byte[] direction = new byte[16];
+    private long[] ownerMost = new long[16];
+    private long[] ownerLeast = new long[16];
+    private int[] ownerName = new int[16];
+    private long[] placedAt = new long[16];
+    private int[] chunkNext = new int[16];
+    private int[] chunkPrev = new int[16];
+    private byte[] verdict = new byte[16];
+    private long[] verifiedAt = new long[16];
+
+    /**
+     * Pack block coordinates into one long (26 bits X, 26 bits Z, 12 bits Y).
+     */
+    public static long packPos(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    public static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    public static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+
+    /**
+     * Chunk key in the same layout as Paper's {@code Chunk#getChunkKey()}.
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return (chunkX & 0xFFFFFFFFL) | ((chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    /**
+     * Index of a world in the name table, or -1 if no block was ever registered there.
+     */
+    public int getWorldIndex(String worldName) {
+        Integer index = worldIndex.get(worldName);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Row of the block at the given position, or -1.
+     */
+    public int find(int worldIdx, int x, int y, int z) {
+        if (worldIdx < 0) return -1;
+        return rowsByWorld.get(worldIdx).get(packPos(x, y, z));
+    }
+
+    public int find(String worldName, int x, int y, int z) {
+        return find(getWorldIndex(worldName), x, y, z);
+    }
+
+    /**
+     * Whether any spawn block is registered in the given chunk.
+     */
+    public boolean hasBlocksInChunk(int worldIdx, int chunkX, int chunkZ) {
+        return worldIdx >= 0 && chunkHeads.get(worldIdx).containsKey(chunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * First row in the given chunk, or -1. Continue with {@link #nextInChunk(int)}.
+     */
+    public int firstInChunk(int worldIdx, int chunkX, int chunkZ) {
+        if (worldIdx < 0) return -1;
+        return chunkHeads.get(worldIdx).get(chunkKey(chunkX, chunkZ));
+    }
+
+    public int nextInChunk(int row) {
+        return chunkNext[row];
+    }
+
+    public int getX(int row) {
+        return unpackX(pos[row]);
+    }
+
+    public int getY(int row) {
+        return unpackY(pos[row]);
+    }
+
+    public int getZ(int row) {
+        return unpackZ(pos[row]);
+    }
+
+    public int getWorld(int row) {
+        return world[row];
+    }
+
+    public byte getVerdict(int row) {
+        return verdict[row];
+    }
+
+    /**
+     * When the row's verdict was last set, in epoch millis (0 if never).
+     */
+    public long getVerifiedAt(int row) {
+        return verifiedAt[row];
+    }
+
+    public void setVerdict(int row, byte value, long atMillis) {
+        verdict[row] = value;
+        verifiedAt[row] = atMillis;
+    }
+
+    public String getWorldName(int worldIdx) {
+        return worldNames.get(worldIdx);
+    }
+
+    public int getWorldCount() {
+        return worldNames.size();
+    }
+
+    /**
+     * Add a block, replacing any block already registered at the same position.
+     *
+     * @return the row of the block
+     */
+    public int add(SpawnBlock block) {
+        UUID owner = block.getOwnerUuid();
+        return add(internWorld(block.getWorldName()), block.getX(), block.getY(), block.getZ(),
+                encodeDirection(block.getDirection()),
+                owner != null ? owner.getMostSignificantBits() : 0L,
+                owner != null ? owner.getLeastSignificantBits() : 0L,
+                internOwnerName(block.getOwnerName()), block.getPlacedAt());
+    }
+
+    /**
+     * Add a block from already interned columns, e.g. while bulk loading a snapshot.
+     *
+     * @param worldIdx      Index from {@link #internWorld(String)}
+     * @param directionCode Code from {@link #encodeDirection(BlockFace)}
+     * @param ownerNameIdx  Index from {@link #internOwnerName(String)}
+     * @return the row of the block
+     */
+    public int add(int worldIdx, int x, int y, int z, byte directionCode, long ownerMostBits, long ownerLeastBits,
+                   int ownerNameIdx, long placedAtMillis) {
+        long packed = packPos(x, y, z);
+
+        LongIntHashMap rows = rowsByWorld.get(worldIdx);
+        int row = rows.get(packed);
+        boolean created = row == LongIntHashMap.MISSING;
+        if (created) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rows.put(packed, row);
+        }
+
+        world[row] = worldIdx;
+        pos[row] = packed;
+        if (created) {
+            linkChunk(row);
+        }
+        direction[row] = (directionCode >= 0 && directionCode < DIRECTIONS.length) ? directionCode : 0;
+        ownerMost[row] = ownerMostBits;
+        ownerLeast[row] = ownerLeastBits;
+        ownerName[row] = ownerNameIdx;
+        placedAt[row] = placedAtMillis;
+        verdict[row] = VERDICT_UNKNOWN;
+        verifiedAt[row] = 0L;
+        return row;
+    }
+
+    /**
+     * Remove the block at the given position.
+     *
+     * @return the removed block, or null if there was none
+     */
+    public SpawnBlock remove(String worldName, int x, int y, int z) {
+        int worldIdx = getWorldIndex(worldName);
+        if (worldIdx < 0) return null;
+
+        int row = rowsByWorld.get(worldIdx).remove(packPos(x, y, z));
+        if (row == LongIntHashMap.MISSING) return null;
+
+        SpawnBlock removed = get(row);
+        unlinkChunk(row);
+
+        int last = --size;
+        if (row != last) {
+            // Move the last row into the hole
+            world[row] = world[last];
+            pos[row] = pos[last];
+            direction[row] = direction[last];
+            ownerMost[row] = ownerMost[last];
+            ownerLeast[row] = ownerLeast[last];
+            ownerName[row] = ownerName[last];
+            placedAt[row] = placedAt[last];
+            chunkNext[row] = chunkNext[last];
+            chunkPrev[row] = chunkPrev[last];
+            verdict[row] = verdict[last];
+            verifiedAt[row] = verifiedAt[last];
+            rowsByWorld.get(world[row]).put(pos[row], row);
+
+            // Repoint the moved row's chunk neighbours
+            if (chunkPrev[row] >= 0) {
+                chunkNext[chunkPrev[row]] = row;
+            } else {
+                chunkHeads.get(world[row]).put(chunkKeyOf(row), row);
+            }
+            if (chunkNext[row] >= 0) {
+                chunkPrev[chunkNext[row]] = row;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Materialize a row as a {@link SpawnBlock} value.
+     */
+    public SpawnBlock get(int row) {
+        long packed = pos[row];
+        UUID owner = (ownerMost[row] == 0L && ownerLeast[row] == 0L) ? null : new UUID(ownerMost[row], ownerLeast[row]);
+        return new SpawnBlock(worldNames.get(world[row]), unpackX(packed), unpackY(packed), unpackZ(packed),
+                decodeDirection(direction[row]), owner, ownerNames.get(ownerName[row]), placedAt[row]);
+    }
+
+    public static BlockFace decodeDirection(byte code) {
+        return DIRECTIONS[code];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Grow the columns ahead of a bulk load.
+     */
+    public void reserve(int rows) {
+        ensureCapacity(rows);
+    }
+
+    public void clear() {
+        size = 0;
+        worldNames.clear();
+        worldIndex.clear();
+        rowsByWorld.clear();
+        chunkHeads.clear();
+        ownerNames.clear();
+        ownerNameIndex.clear();
+    }
+
+    public int internWorld(String name) {
+        Integer index = worldIndex.get(name);
+        if (index != null) return index;
+
+        int created = worldNames.size();
+        worldNames.add(name);
+        worldIndex.put(name, created);
+        rowsByWorld.add(new LongIntHashMap());
+        chunkHeads.add(new LongIntHashMap());
+        return created;
+    }
+
+    private long chunkKeyOf(int row) {
+        return chunkKey(unpackX(pos[row]) >> 4, unpackZ(pos[row]) >> 4);
+    }
+
+    private void linkChunk(int row) {
+        LongIntHashMap heads = chunkHeads.get(world[row]);
+        long key = chunkKeyOf(row);
+        int head = heads.get(key);
+
+        chunkPrev[row] = -1;
+        chunkNext[row] = head;
+        if (head >= 0) {
+            chunkPrev[head] = row;
+        }
+        heads.put(key, row);
+    }
+
+    private void unlinkChunk(int row) {
+        int prev = chunkPrev[row];
+        int next = chunkNext[row];
+
+        if (prev >= 0) {
+            chunkNext[prev] = next;
+        } else {
+            LongIntHashMap heads = chunkHeads.get(world[row]);
+            if (next >= 0) {
+                heads.put(chunkKeyOf(row), next);
+            } else {
+                heads.remove(chunkKeyOf(row));
+            }
+        }
+        if (next >= 0) {
+            chunkPrev[next] = prev;
+        }
+    }
+
+    public int internOwnerName(String name) {
+        if (name == null) name = "Unknown";
+        Integer index = ownerNameIndex.get(name);
+        if (index != null) return index;
+
+        int created = ownerNames.size();
+        ownerNames.add(name);
+        ownerNameIndex.put(name, created);
+        return created;
+    }
+
+    public static byte encodeDirection(BlockFace face) {
+        return switch (face) {
+            case WEST -> 1;
+            case NORTH -> 2;
+            case EAST -> 3;
+            default -> 0;
+        };
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= world.length) return;
+
+        int capacity = Math.max(needed, world.length << 1);
+        world = Arrays.copyOf(world, capacity);
+        pos = Arrays.copyOf(pos, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        ownerMost = Arrays.copyOf(ownerMost, capacity);
+        ownerLeast = Arrays.copyOf(ownerLeast, capacity);
+        ownerName = Arrays.copyOf(ownerName, capacity);
+        placedAt = Arrays.copyOf(placedAt, capacity);
+        chunkNext = Arrays.copyOf(chunkNext, capacity);
+        chunkPrev = Arrays.copyOf(chunkPrev, capacity);
+        verdict = Arrays.copyOf(verdict, capacity);
+        verifiedAt = Arrays.copyOf(verifiedAt, capacity);
+    }
+}
@@ -0,0 +1,183 @@
+package com.haksndot.ffspawn;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Versioned binary snapshot of all spawn blocks ({@code spawn-blocks.dat}).
+ * <pre>
+ * int    magic ("FFSB")
+ * int    version
+ * int    record size in bytes
+ * int    world count,  then each name as (unsigned short length, UTF-8 bytes)
+ * int    owner count,  then each name the same way
+ * int    record count, then fixed-width records:
+ *        int world, int x, int y, int z, byte direction, byte has-owner, short reserved,
+ *        long owner-most, long owner-least, int owner-name, long placed-at
+ * </pre>
+ * Files are read through a memory-mapped {@link FileChannel} straight into the registry
+ * columns, without building per-block objects.
+ */
+public final class SpawnBlockSnapshot {
+
+    public static final String FILE_NAME = "spawn-blocks.dat";
+
+    private static final int MAGIC = 0x46465342;
+    private static final int VERSION = 1;
+    private static final int RECORD_SIZE = 48;
+
+    private SpawnBlockSnapshot() {
+    }
+
+    /**
+     * Load a snapshot into the registry.
+     *
+     * @return number of blocks loaded
+     */
+    public static int read(Path file, SpawnBlockRegistry registry) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a spawn block snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported spawn block snapshot version " + version);
+            }
+            int recordSize = buffer.getInt();
+            if (recordSize < RECORD_SIZE) {
+                throw new IOException("Invalid record size " + recordSize);
+            }
+
+            // Map the file's string tables onto the registry's tables once
+            int[] worlds = new int[buffer.getInt()];
+            for (int i = 0; i < worlds.length; i++) {
+                worlds[i] = registry.internWorld(readString(buffer));
+            }
+            int[] owners = new int[buffer.getInt()];
+            for (int i = 0; i < owners.length; i++) {
+                owners[i] = registry.internOwnerName(readString(buffer));
+            }
+
+            int count = buffer.getInt();
+            if ((long) count * recordSize > buffer.remaining()) {
+                throw new IOException("Spawn block snapshot is truncated");
+            }
+            registry.reserve(registry.size() + count);
+
+            int base = buffer.position();
+            for (int i = 0; i < count; i++) {
+                int p = base + i * recordSize;
+                boolean hasOwner = buffer.get(p + 17) != 0;
+                registry.add(
+                        worlds[buffer.getInt(p)],
+                        buffer.getInt(p + 4),
+                        buffer.getInt(p + 8),
+                        buffer.getInt(p + 12),
+                        buffer.get(p + 16),
+                        hasOwner ? buffer.getLong(p + 20) : 0L,
+                        hasOwner ? buffer.getLong(p + 28) : 0L,
+                        owners[buffer.getInt(p + 36)],
+                        buffer.getLong(p + 40));
+            }
+            return count;
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Spawn block snapshot is corrupt", e);
+        }
+    }
+
+    /**
+     * Write the given blocks as a snapshot.
+     */
+    public static void write(List<SpawnBlock> blocks, Path target) throws IOException {
+        List<String> worlds = new ArrayList<>();
+        Map<String, Integer> worldIndex = new HashMap<>();
+        List<String> owners = new ArrayList<>();
+        Map<String, Integer> ownerIndex = new HashMap<>();
+
+        for (SpawnBlock block : blocks) {
+            worldIndex.computeIfAbsent(block.getWorldName(), name -> {
+                worlds.add(name);
+                return worlds.size() - 1;
+            });
+            ownerIndex.computeIfAbsent(ownerName(block), name -> {
+                owners.add(name);
+                return owners.size() - 1;
+            });
+        }
+
+        int size = 16 + tableSize(worlds) + tableSize(owners) + blocks.size() * RECORD_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE);
+        writeTable(buffer, worlds);
+        writeTable(buffer, owners);
+
+        buffer.putInt(blocks.size());
+        for (SpawnBlock block : blocks) {
+            UUID owner = block.getOwnerUuid();
+            buffer.putInt(worldIndex.get(block.getWorldName()))
+                    .putInt(block.getX())
+                    .putInt(block.getY())
+                    .putInt(block.getZ())
+                    .put(SpawnBlockRegistry.encodeDirection(block.getDirection()))
+                    .put((byte) (owner != null ? 1 : 0))
+                    .putShort((short) 0)
+                    .putLong(owner != null ? owner.getMostSignificantBits() : 0L)
+                    .putLong(owner != null ? owner.getLeastSignificantBits() : 0L)
+                    .putInt(ownerIndex.get(ownerName(block)))
+                    .putLong(block.getPlacedAt());
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    private static String ownerName(SpawnBlock block) {
+        return block.getOwnerName() != null ? block.getOwnerName() : "Unknown";
+    }
+
+    private static int tableSize(List<String> names) {
+        int size = 4;
+        for (String name : names) {
+            size += 2 + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    private static void writeTable(ByteBuffer buffer, List<String> names) throws IOException {
+        buffer.putInt(names.size());
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("Name too long: " + name);
+            }
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
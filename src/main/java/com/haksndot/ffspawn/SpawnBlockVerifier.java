@@ -0,0 +1,221 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifies spawn blocks in the background and caches a safe/unsafe verdict for their headroom.
+ * <p>
+ * Chunks holding spawn blocks are queued when they load for any reason and checked on the
+ * main thread within a per-tick time budget: vanished blocks are unregistered and the rest get
+ * a verdict, which the respawn path then uses instead of reading the blocks itself. Block
+ * changes clear the verdicts of their chunk, and of the neighbouring chunk on a chunk edge.
+ * When the queue is empty, leftover budget goes to blocks whose verdict has expired, loading a
+ * few of their chunks asynchronously if needed. On Folia the queue is drained from the global
+ * region thread and each chunk is verified on the thread of the region owning it.
+ */
+public class SpawnBlockVerifier implements Listener, Runnable {
+
+    // Rows looked at per tick while searching for expired verdicts
+    private static final int STALE_SCAN_ROWS = 256;
+
+    private final FFSpawn plugin;
+    private final ConfigManager config;
+    private final SpawnBlockManager manager;
+    private final SpawnManager spawnManager;
+    private final ArrayDeque<ChunkRef> queue = new ArrayDeque<>();
+    private final Set<ChunkRef> queued = new HashSet<>();
+    private int staleCursor;
+    private final AtomicInteger staleInFlight = new AtomicInteger();
+
+    public SpawnBlockVerifier(FFSpawn plugin, ConfigManager config, SpawnBlockManager manager, SpawnManager spawnManager) {
+        this.plugin = plugin;
+        this.config = config;
+        this.manager = manager;
+        this.spawnManager = spawnManager;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (!config.isVerificationEnabled()) return;
+
+        World world = event.getWorld();
+        int chunkX = event.getChunk().getX();
+        int chunkZ = event.getChunk().getZ();
+        if (manager.hasSpawnBlocksInChunk(world, chunkX, chunkZ)) {
+            enqueue(world, chunkX, chunkZ);
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!config.isVerificationEnabled()) return;
+
+        long deadline = System.nanoTime() + config.getVerificationTickBudgetNanos();
+
+        ChunkRef ref;
+        while (System.nanoTime() < deadline && (ref = poll()) != null) {
+            ChunkRef chunk = ref;
+            // Inline on Paper, so the budget covers the checks themselves
+            plugin.getSchedulerAdapter().runAt(chunk.world, chunk.x, chunk.z,
+                    () -> verifyChunk(chunk.world, chunk.x, chunk.z));
+        }
+
+        if (getQueueSize() == 0 && System.nanoTime() < deadline) {
+            scanForStale();
+        }
+    }
+
+    /**
+     * Forget queued work, e.g. after spawn blocks were reloaded.
+     */
+    public synchronized void reset() {
+        queue.clear();
+        queued.clear();
+        staleCursor = 0;
+    }
+
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    private synchronized ChunkRef poll() {
+        ChunkRef ref = queue.poll();
+        if (ref != null) queued.remove(ref);
+        return ref;
+    }
+
+    private synchronized void enqueue(World world, int chunkX, int chunkZ) {
+        ChunkRef ref = new ChunkRef(world, chunkX, chunkZ);
+        if (queued.add(ref)) {
+            queue.add(ref);
+        }
+    }
+
+    /**
+     * Forget the verdicts a block change may affect. Called by {@link BlockChangeListener}.
+     */
+    public void blockChanged(Block block) {
+        World world = block.getWorld();
+        int x = block.getX();
+        int z = block.getZ();
+        // The headroom check reads the columns next to a spawn block, so a change on a chunk
+        // edge can also affect spawn blocks in the neighbouring chunk
+        int minChunkX = (x - 1) >> 4;
+        int maxChunkX = (x + 1) >> 4;
+        int minChunkZ = (z - 1) >> 4;
+        int maxChunkZ = (z + 1) >> 4;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                if (manager.hasSpawnBlocksInChunk(world, chunkX, chunkZ)) {
+                    manager.invalidateVerdicts(world, chunkX, chunkZ);
+                }
+            }
+        }
+    }
+
+    private void verifyChunk(World world, int chunkX, int chunkZ) {
+        // Never load chunks from here; unloaded ones are picked up by the stale pass
+        if (!world.isChunkLoaded(chunkX, chunkZ)) return;
+
+        SpawnBlockRegistry registry = manager.getRegistry();
+        long now = System.currentTimeMillis();
+        List<int[]> vanished = new ArrayList<>();
+
+        // Rows must not move during the walk
+        synchronized (manager) {
+            int worldIdx = registry.getWorldIndex(world.getName());
+            for (int row = registry.firstInChunk(worldIdx, chunkX, chunkZ); row >= 0; row = registry.nextInChunk(row)) {
+                int x = registry.getX(row);
+                int y = registry.getY(row);
+                int z = registry.getZ(row);
+
+                if (world.getBlockAt(x, y, z).getType() != Material.LODESTONE) {
+                    vanished.add(new int[]{x, y, z});
+                    continue;
+                }
+                if (!neighboursLoaded(world, x, z)) continue;
+
+                boolean safe = spawnManager.isSpawnBlockLocationSafe(world, x, y + 1, z);
+                registry.setVerdict(row, safe ? SpawnBlockRegistry.VERDICT_SAFE : SpawnBlockRegistry.VERDICT_UNSAFE, now);
+            }
+        }
+
+        // Removal reorders rows, so it happens after the walk
+        for (int[] p : vanished) {
+            if (manager.removeSpawnBlock(new Location(world, p[0], p[1], p[2])) != null) {
+                plugin.getLogger().warning("Spawn block at " + world.getName() + "," + p[0] + "," + p[1] + "," +
+                        p[2] + " no longer exists - removed");
+            }
+        }
+    }
+
+    /**
+     * Queue the chunk of the next block with an expired verdict, loading it asynchronously if needed.
+     */
+    private void scanForStale() {
+        synchronized (manager) {
+            scanForStale(manager.getRegistry());
+        }
+    }
+
+    private void scanForStale(SpawnBlockRegistry registry) {
+        int size = registry.size();
+        if (size == 0) return;
+
+        long expiredBefore = System.currentTimeMillis() - config.getVerificationMaxAgeMillis();
+        for (int i = 0; i < Math.min(size, STALE_SCAN_ROWS); i++) {
+            if (staleCursor >= size) staleCursor = 0;
+            int row = staleCursor++;
+            if (registry.getVerifiedAt(row) >= expiredBefore) continue;
+
+            World world = plugin.getServer().getWorld(registry.getWorldName(registry.getWorld(row)));
+            if (world == null) continue;
+
+            int chunkX = registry.getX(row) >> 4;
+            int chunkZ = registry.getZ(row) >> 4;
+            if (world.isChunkLoaded(chunkX, chunkZ)) {
+                enqueue(world, chunkX, chunkZ);
+                return;
+            }
+            if (staleInFlight.get() < config.getVerificationStaleLoads()) {
+                staleInFlight.incrementAndGet();
+                world.getChunkAtAsync(chunkX, chunkZ, false).whenComplete((chunk, error) -> {
+                    // The load event queues the chunk
+                    staleInFlight.decrementAndGet();
+                });
+                return;
+            }
+        }
+    }
+
+    /**
+     * Whether the chunks touched by the headroom check around a column are loaded,
+     * so the check cannot trigger a synchronous chunk load.
+     */
+    private static boolean neighboursLoaded(World world, int x, int z) {
+        int minX = (x - 1) >> 4, maxX = (x + 1) >> 4;
+        int minZ = (z - 1) >> 4, maxZ = (z + 1) >> 4;
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                if (!world.isChunkLoaded(cx, cz)) return false;
+            }
+        }
+        return true;
+    }
+
+    private record ChunkRef(World world, int x, int z) {}
+}
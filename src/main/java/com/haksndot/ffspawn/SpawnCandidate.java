@@ -0,0 +1,61 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+/**
+ * A spawn candidate as seen by {@link SpawnRule}s. Instances are reused from one check to the
+ * next, so rules must not keep a reference.
+ */
+public final class SpawnCandidate {
+
+    private SpawnZone zone;
+    private World world;
+    private int x;
+    private int y;
+    private int z;
+    private Player player;
+
+    void set(SpawnZone zone, World world, int x, int z, Player player) {
+        this.zone = zone;
+        this.world = world;
+        this.x = x;
+        this.y = Integer.MIN_VALUE;
+        this.z = z;
+        this.player = player;
+    }
+
+    void setY(int y) {
+        this.y = y;
+    }
+
+    public SpawnZone getZone() {
+        return zone;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Feet Y of the spot. Only set for {@link SpawnRule.Stage#SPOT} rules.
+     */
+    public int getY() {
+        return y;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    /**
+     * The player who would spawn here, or null when filling a pool.
+     */
+    public Player getPlayer() {
+        return player;
+    }
+}
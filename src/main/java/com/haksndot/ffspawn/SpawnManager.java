@@ -1,5 +1,7 @@
 package com.haksndot.ffspawn;
 
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.HeightMap;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -7,10 +9,14 @@ import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 public class SpawnManager {
 
@@ -18,268 +24,991 @@ public class SpawnManager {
     private final ConfigManager config;
     private final GriefPreventionHook gpHook;
     private SpawnBlockManager spawnBlockManager;
+    private ChunkPrewarmer prewarmer;
+    private volatile WeightedSampler<Object> sampler;
+    private volatile Location lastPooledLocation;
+    private final SpawnStats stats = new SpawnStats();
+    private final LongAdder[] fallbacksByMode = new LongAdder[SpawnZone.ChunkMode.values().length];
+    private final LongAdder verdictHits = stats.counter("spawn-block.verdict.cached");
+    private final LongAdder verdictMisses = stats.counter("spawn-block.verdict.checked");
+    private final LongAdder maskCellsCleared = stats.counter("mask.cells-cleared");
+    private final LongAdder maskCellsRestored = stats.counter("mask.cells-restored");
+    private final LongAdder surveyRejects = stats.counter("survey.rejected");
+    private final LongAdder heightCacheHits = stats.counter("height-cache.hit");
+    private final LongAdder heightCacheMisses = stats.counter("height-cache.miss");
+    private final LongAdder batchSnapshots = stats.counter("batch.snapshots");
+    private final LongAdder batchColumns = stats.counter("batch.columns");
+    private final LongAdder batchPooled = stats.counter("batch.pooled");
+    private final LongAdder syncSearches = stats.counter("search.sync.count");
+    private final LongAdder syncAllocated = stats.counter("search.sync.allocated-bytes");
+    private final LongAdder resultFound = stats.counter("search.result.found");
+    private final LongAdder resultPooled = stats.counter("search.result.pooled-fallback");
+    private final LongAdder resultCached = stats.counter("search.result.cached-fallback");
+    private final LongAdder resultWorldSpawn = stats.counter("search.result.world-spawn");
+    private final LongAdder searchBudgetExhausted = stats.counter("search.budget.search-exhausted");
+    private final LongAdder tickBudgetExhausted = stats.counter("search.budget.tick-exhausted");
+    private final SchedulerAdapter scheduler;
+
+    // Sampler entry that stands for "any spawn block"
+    private static final Object SPAWN_BLOCK_GROUP = new Object();
+    // Outcomes of the world-free candidate checks (other values are a cached feet Y)
+    private static final int REJECTED = Integer.MIN_VALUE;
+    private static final int UNCHECKED = Integer.MIN_VALUE + 1;
+    // Per-thread allocation counter, if the JVM offers one
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    // Height cache cells scanned per zone when looking for a cached fallback location
+    private static final int CACHE_SCAN_CELLS = 4096;
+    // Time spent on synchronous searches in the current tick
+    private int budgetTick = -1;
+    private long tickSpentNanos;
+
+    // Scratch column and rule candidate per thread (main, or each region on Folia), so sampling
+    // allocates nothing
+    private final ThreadLocal<int[]> columns = ThreadLocal.withInitial(() -> new int[2]);
+    private final ThreadLocal<SpawnCandidate> candidates = ThreadLocal.withInitial(SpawnCandidate::new);
+    // Rules added by other plugins, and the version of the full rule set
+    private final List<SpawnRule> registeredRules = new CopyOnWriteArrayList<>();
+    private volatile int rulesVersion;
 
     public SpawnManager(FFSpawn plugin, ConfigManager config, GriefPreventionHook gpHook) {
         this.plugin = plugin;
         this.config = config;
         this.gpHook = gpHook;
+        this.scheduler = plugin.getSchedulerAdapter();
+
+        for (SpawnZone.ChunkMode mode : SpawnZone.ChunkMode.values()) {
+            fallbacksByMode[mode.ordinal()] = stats.counter("fallback.chunk-mode." + mode.getConfigName());
+        }
     }
 
     public void setSpawnBlockManager(SpawnBlockManager manager) {
         this.spawnBlockManager = manager;
+        invalidateSampler();
+    }
+
+    public void setPrewarmer(ChunkPrewarmer prewarmer) {
+        this.prewarmer = prewarmer;
     }
 
     /**
      * Find a valid random spawn location for a player.
      * Returns null if no valid location found after max attempts.
+     * <p>
+     * On Folia a search here could touch chunks of other regions, so only a ready pooled
+     * location is returned; use {@link #findSpawnLocationAsync} there.
      */
     public Location findSpawnLocation(Player player) {
-        List<SpawnZone> zones = config.getZones();
-        Collection<SpawnBlock> spawnBlocks = (config.isSpawnBlocksEnabled() && spawnBlockManager != null)
-                ? spawnBlockManager.getAllSpawnBlocks() : List.of();
-
-        if (zones.isEmpty() && spawnBlocks.isEmpty()) {
+        if (getSampler().isEmpty()) {
             return null;
         }
+        if (scheduler.isFolia()) {
+            return findPooledLocation(player);
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long started = System.nanoTime();
+        Location result = searchSync(player, started);
+        tickSpentNanos += System.nanoTime() - started;
+        if (allocatedBefore >= 0) {
+            syncSearches.increment();
+            syncAllocated.add(allocatedBytes() - allocatedBefore);
+        }
+        return result;
+    }
 
+    /**
+     * Search until a location is found, the attempts run out, or the search's share of the
+     * time budget is used up.
+     */
+    private Location searchSync(Player player, long started) {
         int maxAttempts = config.getMaxAttempts();
+        int modesTried = 0;
+
+        // The search may use its own budget, but no more than is left of this tick's
+        long budget = config.getSearchBudgetNanos();
+        boolean tickLimited = false;
+        if (config.getTickBudgetNanos() > 0) {
+            int tick = plugin.getServer().getCurrentTick();
+            if (tick != budgetTick) {
+                budgetTick = tick;
+                tickSpentNanos = 0;
+            }
+            long tickLeft = config.getTickBudgetNanos() - tickSpentNanos;
+            if (budget <= 0 || tickLeft < budget) {
+                budget = tickLeft;
+                tickLimited = true;
+            }
+        }
+        boolean budgeted = budget > 0 || tickLimited;
+
+        int attempt = 0;
+        int staleRetries = 0;
+        for (; attempt < maxAttempts; attempt++) {
+            if (budgeted && System.nanoTime() - started >= budget) {
+                (tickLimited ? tickBudgetExhausted : searchBudgetExhausted).increment();
+                return fallback(player, null, true, attempt, modesTried, true);
+            }
 
-        for (int attempt = 0; attempt < maxAttempts; attempt++) {
-            // Select either a zone or spawn block based on weights
-            Object selected = selectWeightedSpawnPoint(zones, spawnBlocks);
+            // Select either a zone or the spawn block group based on weights.
+            // The sampler is re-read each time since removing a stale spawn block rebuilds it.
+            Object selected = getSampler().sample();
 
             if (selected instanceof SpawnZone zone) {
+                modesTried |= 1 << zone.getChunkMode().ordinal();
                 Location loc = attemptZoneSpawn(zone, player);
-                if (loc != null) return loc;
-            } else if (selected instanceof SpawnBlock block) {
-                Location loc = attemptSpawnBlockSpawn(block);
-                if (loc != null) return loc;
+                if (loc != null) return found(loc);
+            } else if (selected == SPAWN_BLOCK_GROUP) {
+                SpawnBlock block = nextSpawnBlock();
+                if (block == null) continue;
+                byte verdict = spawnBlockManager.getVerdict(block);
+                if (verdict == SpawnBlockRegistry.VERDICT_UNKNOWN && !verifySpawnBlock(block)) {
+                    // Vanished block, now unregistered - doesn't count as an attempt, up to as many
+                    // again as there are attempts, so mass removals can't make a search unbounded
+                    if (++staleRetries <= maxAttempts) attempt--;
+                    continue;
+                }
+                Location loc = attemptSpawnBlockSpawn(block, verdict);
+                if (loc != null) return found(loc);
             }
         }
 
         // Failed to find valid location
-        plugin.getLogger().warning("Failed to find valid spawn for " + player.getName() +
-                " after " + maxAttempts + " attempts. Using world spawn.");
-        return null;
+        return fallback(player, null, true, attempt, modesTried, false);
     }
 
-    private Location attemptZoneSpawn(SpawnZone zone, Player player) {
-        if (zone.getWorld() == null) return null;
+    private Location found(Location loc) {
+        resultFound.increment();
+        return loc;
+    }
 
-        Location loc = zone.getRandomLocation();
-        if (loc == null) return null;
+    /**
+     * Asynchronous variant of {@link #findSpawnLocation(Player)}.
+     * Candidate chunks are loaded with {@link World#getChunkAtAsync}, and each check runs once its
+     * chunk is ready, so the search never blocks the tick on chunk loading or generation.
+     * The future completes on the main thread (on Folia, the thread of the region the last
+     * candidate was checked in) with null if no valid location was found.
+     *
+     * @param player The player who would spawn here, or null for one who hasn't joined yet
+     *               (rejects any claim)
+     */
+    public CompletableFuture<Location> findSpawnLocationAsync(Player player) {
+        return findSpawnLocationAsync(player, SpawnRequestOptions.DEFAULT);
+    }
 
-        loc = findSafeY(loc);
-        if (loc == null) return null;
+    /**
+     * Asynchronous search limited by request options, e.g. to one zone. Completes with null if
+     * no location was found or the options name an unknown zone.
+     */
+    public CompletableFuture<Location> findSpawnLocationAsync(Player player, SpawnRequestOptions options) {
+        if (getSampler().isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        SpawnZone only = null;
+        if (options.getZone() != null) {
+            only = config.getZone(options.getZone());
+            if (only == null) return CompletableFuture.completedFuture(null);
+        }
+        int maxAttempts = options.getMaxAttempts() > 0 ? options.getMaxAttempts() : config.getMaxAttempts();
+        return attemptAsync(player, options, only, 0, maxAttempts, 0, 0);
+    }
+
+    /**
+     * Search asynchronously and move the player with {@link Player#teleportAsync} once a location is found.
+     * Completes with the destination, or null if no location was found or the player could not be moved.
+     */
+    public CompletableFuture<Location> teleportToRandomSpawnAsync(Player player) {
+        return findSpawnLocationAsync(player).thenComposeAsync(loc -> {
+            if (loc == null || !player.isOnline()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return player.teleportAsync(loc).thenApply(moved -> moved ? loc : null);
+        }, scheduler.forEntity(player));
+    }
 
-        if (isBiomeBlocked(loc)) return null;
-        if (gpHook.isEnabled() && gpHook.isInClaim(loc, player)) return null;
-        if (config.isRequireSolidGround() && !isSafeLocation(loc)) return null;
+    /**
+     * Take a ready location from the pool of a randomly selected zone without searching.
+     * Returns null if the selection landed on a spawn block or the zone's pool is empty.
+     */
+    public Location findPooledLocation(Player player) {
+        if (getSampler().sample() instanceof SpawnZone zone && zone.getWorld() != null) {
+            return takePooledLocation(zone, player);
+        }
+        return null;
+    }
 
-        loc.setX(loc.getBlockX() + 0.5);
-        loc.setZ(loc.getBlockZ() + 0.5);
-        return loc;
+    /**
+     * Take a ready pooled location allowed by the request options, or null if there is none.
+     */
+    public Location findPooledLocation(Player player, SpawnRequestOptions options) {
+        if (!options.isUsePool()) return null;
+        Object selected;
+        if (options.getZone() != null) {
+            // An unknown zone finds nothing, like the search itself
+            selected = config.getZone(options.getZone());
+        } else {
+            selected = select(options);
+        }
+        if (selected instanceof SpawnZone zone && zone.getWorld() != null) {
+            return takePooledLocation(zone, player);
+        }
+        return null;
     }
 
-    private Location attemptSpawnBlockSpawn(SpawnBlock block) {
-        Location loc = block.getSpawnLocation();
-        if (loc == null || loc.getWorld() == null) return null;
+    /**
+     * Cheap location to hold a player at while an asynchronous search runs.
+     * Returns null to keep the server's default (world spawn).
+     */
+    public Location getHoldingLocation() {
+        if (config.getAsyncHoldingPoint() == ConfigManager.HoldingPoint.LAST_POOLED && lastPooledLocation != null
+                && lastPooledLocation.getWorld() != null) {
+            return lastPooledLocation.clone();
+        }
+        return null;
+    }
 
-        // Verify block still exists
-        Block worldBlock = loc.getWorld().getBlockAt(block.getX(), block.getY(), block.getZ());
-        if (worldBlock.getType() != Material.LODESTONE) {
-            plugin.getLogger().warning("Spawn block at " + block.getLocationKey() + " no longer exists");
-            spawnBlockManager.removeSpawnBlock(worldBlock.getLocation());
-            return null;
+    /**
+     * @param staleRetries Vanished spawn blocks met so far; as many as {@code maxAttempts} are
+     *                     free, later ones count as attempts
+     */
+    private CompletableFuture<Location> attemptAsync(Player player, SpawnRequestOptions options, SpawnZone only,
+                                                     int attempt, int maxAttempts, int modesTried, int staleRetries) {
+        if (attempt >= maxAttempts) {
+            return CompletableFuture.completedFuture(
+                    fallback(player, only, options.isUsePool(), maxAttempts, modesTried, false));
         }
 
-        // Check safety at spawn location
-        if (!isSpawnBlockLocationSafe(loc)) return null;
+        Object selected = only != null ? only : select(options);
+        CompletableFuture<Location> step;
+
+        if (selected instanceof SpawnZone zone) {
+            modesTried |= 1 << zone.getChunkMode().ordinal();
+            step = attemptZoneSpawnAsync(zone, player);
+        } else if (selected == SPAWN_BLOCK_GROUP) {
+            SpawnBlock block = nextSpawnBlock();
+            byte verdict = block != null ? spawnBlockManager.getVerdict(block) : SpawnBlockRegistry.VERDICT_UNKNOWN;
+            if (block != null && verdict == SpawnBlockRegistry.VERDICT_UNKNOWN) {
+                int tried = modesTried;
+                return loadSpawnBlockChunk(block).thenComposeAsync(loaded -> {
+                    if (loaded && !verifySpawnBlock(block)) {
+                        // Vanished block, now unregistered - doesn't count as an attempt, within limits
+                        int next = staleRetries < maxAttempts ? attempt : attempt + 1;
+                        return attemptAsync(player, options, only, next, maxAttempts, tried, staleRetries + 1);
+                    }
+                    Location loc = loaded ? attemptSpawnBlockSpawn(block, verdict) : null;
+                    return loc != null
+                            ? CompletableFuture.completedFuture(found(loc))
+                            : attemptAsync(player, options, only, attempt + 1, maxAttempts, tried, staleRetries);
+                }, scheduler.at(plugin.getServer().getWorld(block.getWorldName()), block.getX() >> 4, block.getZ() >> 4));
+            }
+            // A fresh verdict needs no chunk load
+            step = CompletableFuture.completedFuture(block != null ? attemptSpawnBlockSpawn(block, verdict) : null);
+        } else {
+            step = CompletableFuture.completedFuture(null);
+        }
 
-        return loc;
+        int tried = modesTried;
+        return step.exceptionally(error -> null).thenCompose(loc -> loc != null
+                ? CompletableFuture.completedFuture(found(loc))
+                : attemptAsync(player, options, only, attempt + 1, maxAttempts, tried, staleRetries));
     }
 
-    private Object selectWeightedSpawnPoint(List<SpawnZone> zones, Collection<SpawnBlock> spawnBlocks) {
-        double sbWeight = config.getSpawnBlockWeight();
-        List<WeightedEntry> entries = new ArrayList<>();
+    /**
+     * A zone or the spawn block group, by weight. If the options leave out spawn blocks, a zone
+     * is drawn by the zones' weights alone. Returns null if there is nothing to draw.
+     */
+    private Object select(SpawnRequestOptions options) {
+        Object selected = getSampler().sample();
+        if (selected != SPAWN_BLOCK_GROUP || options.isSpawnBlocks()) return selected;
 
+        List<SpawnZone> zones = config.getZones();
+        double total = 0;
+        for (SpawnZone zone : zones) total += zone.getWeight();
+        if (total <= 0) return null;
+        double r = ThreadLocalRandom.current().nextDouble(total);
         for (SpawnZone zone : zones) {
-            entries.add(new WeightedEntry(zone, zone.getWeight()));
+            r -= zone.getWeight();
+            if (r < 0) return zone;
         }
-        for (SpawnBlock block : spawnBlocks) {
-            entries.add(new WeightedEntry(block, sbWeight));
+        return zones.get(zones.size() - 1);
+    }
+
+    private CompletableFuture<Location> attemptZoneSpawnAsync(SpawnZone zone, Player player) {
+        World world = zone.getWorld();
+        if (world == null) return CompletableFuture.completedFuture(null);
+
+        // Sampled into the thread's scratch, like the synchronous search
+        int[] xz = columns.get();
+        if (!zone.sampleColumn(xz)) return CompletableFuture.completedFuture(null);
+
+        int chunkX = xz[0] >> 4;
+        int chunkZ = xz[1] >> 4;
+        if (!zone.acceptsChunk(world, chunkX, chunkZ)) return CompletableFuture.completedFuture(null);
+
+        // Column rules and the height cache need no chunk
+        int feetY = precheckColumn(zone, world, xz, player);
+        if (feetY == REJECTED) return CompletableFuture.completedFuture(null);
+        // The scratch is reused by the next search on this thread
+        int x = xz[0];
+        int z = xz[1];
+
+        // A cached safe verdict still needs its blocks re-checked, as the terrain may have changed
+        // without an event (e.g. world editors), so the chunk is loaded either way
+        boolean generate = zone.getChunkMode() == SpawnZone.ChunkMode.ANY;
+        return world.getChunkAtAsync(chunkX, chunkZ, generate)
+                .thenComposeAsync(chunk -> chunk != null
+                        ? evaluateChunk(zone, chunk, x, z, feetY, player)
+                        : CompletableFuture.completedFuture(null), scheduler.at(world, chunkX, chunkZ));
+    }
+
+    /**
+     * A spawn block picked in advance by the prewarmer, whose chunk is warm, or else a random one.
+     */
+    private SpawnBlock nextSpawnBlock() {
+        SpawnBlock block = prewarmer != null ? prewarmer.takeSpawnBlock() : null;
+        return block != null ? block : spawnBlockManager.getRandomSpawnBlock();
+    }
+
+    /**
+     * Load the chunk holding a spawn block. Completes with false if the world or chunk is unavailable.
+     */
+    private CompletableFuture<Boolean> loadSpawnBlockChunk(SpawnBlock block) {
+        Location loc = block.getBlockLocation();
+        if (loc == null) return CompletableFuture.completedFuture(false);
+
+        return loc.getWorld().getChunkAtAsync(block.getX() >> 4, block.getZ() >> 4, false)
+                .handle((chunk, error) -> error == null && chunk != null);
+    }
+
+    /**
+     * The search gave up: use a ready pooled location, then a location from a height cache,
+     * and only then world spawn (null).
+     *
+     * @param only    The only zone to fall back to, or null for any
+     * @param usePool Whether pooled locations may be used
+     */
+    private Location fallback(Player player, SpawnZone only, boolean usePool, int attempts, int modesTried,
+                              boolean outOfTime) {
+        List<SpawnZone> zones = only != null ? List.of(only) : config.getZones();
+        int offset = zones.isEmpty() ? 0 : ThreadLocalRandom.current().nextInt(zones.size());
+
+        for (int i = 0; usePool && i < zones.size(); i++) {
+            SpawnZone zone = zones.get((offset + i) % zones.size());
+            if (zone.getWorld() == null) continue;
+            Location pooled = takePooledLocation(zone, player);
+            if (pooled != null) {
+                resultPooled.increment();
+                return pooled;
+            }
+        }
+        for (int i = 0; i < zones.size(); i++) {
+            Location cached = takeCachedLocation(zones.get((offset + i) % zones.size()), player);
+            if (cached != null) {
+                resultCached.increment();
+                return cached;
+            }
         }
 
-        if (entries.isEmpty()) return null;
-        if (entries.size() == 1) return entries.get(0).object;
+        recordFallback(player, attempts, modesTried, outOfTime);
+        return null;
+    }
 
-        double total = entries.stream().mapToDouble(e -> e.weight).sum();
-        double rand = ThreadLocalRandom.current().nextDouble() * total;
-        double cumulative = 0;
+    /**
+     * A spot the zone's height cache knows to be safe, re-checked against every rule, including
+     * its ground, feet and head blocks. Only spots in loaded chunks this thread owns are used, so
+     * no chunk is loaded. Returns null if none was found near a random starting cell.
+     */
+    private Location takeCachedLocation(SpawnZone zone, Player player) {
+        HeightCache cache = zone.getHeightCache();
+        World world = zone.getWorld();
+        if (cache == null || world == null) return null;
+
+        int cell = cache.findSafe(ThreadLocalRandom.current().nextInt(cache.getCellCount()), CACHE_SCAN_CELLS);
+        if (cell < 0) return null;
+        int x = cache.anchorX(cell);
+        int z = cache.anchorZ(cell);
+        if (!zone.acceptsChunk(world, x >> 4, z >> 4)) return null;
+
+        // The blocks are re-read, so only check loaded chunks this thread owns
+        if (!scheduler.ownsChunk(world, x >> 4, z >> 4) || !world.isChunkLoaded(x >> 4, z >> 4)) return null;
+
+        RuleChain chain = chainFor(zone);
+        SpawnCandidate c = candidates.get();
+        c.set(zone, world, x, z, player);
+        c.setY(cache.get(cell));
+        if (!chain.testColumn(c)) return null;
+        int outcome = chain.testSpot(c, false);
+        if (outcome == RuleChain.TERRAIN_REJECTED) {
+            // Changed since it was cached
+            recordTerrain(zone, x, z, SnapshotEvaluator.UNSAFE);
+            return null;
+        }
+        if (outcome != RuleChain.PASSED) return null;
+        return spawnPoint(world, x, c.getY(), z);
+    }
 
-        for (WeightedEntry entry : entries) {
-            cumulative += entry.weight;
-            if (rand < cumulative) return entry.object;
+    private void recordFallback(Player player, int attempts, int modesTried, boolean outOfTime) {
+        resultWorldSpawn.increment();
+        // Count the fallback against every chunk mode involved in the search
+        for (SpawnZone.ChunkMode mode : SpawnZone.ChunkMode.values()) {
+            if ((modesTried & (1 << mode.ordinal())) != 0) {
+                fallbacksByMode[mode.ordinal()].increment();
+            }
         }
-        return entries.get(entries.size() - 1).object;
+        plugin.getLogger().warning("Failed to find valid spawn for " + (player != null ? player.getName() : "a joining player") +
+                " after " + attempts + " attempts" + (outOfTime ? " (time budget used up)" : "") +
+                ". Using world spawn.");
     }
 
-    private boolean isSpawnBlockLocationSafe(Location loc) {
-        World world = loc.getWorld();
-        if (world == null) return false;
+    public SpawnStats getStats() {
+        return stats;
+    }
 
-        int x = loc.getBlockX(), y = loc.getBlockY(), z = loc.getBlockZ();
-        Block feet = world.getBlockAt(x, y, z);
-        Block head = world.getBlockAt(x, y + 1, z);
+    /**
+     * Add a rule every zone candidate must pass.
+     */
+    public void registerRule(SpawnRule rule) {
+        registeredRules.add(rule);
+        invalidateRules();
+    }
 
-        if (feet.getType().isSolid() || head.getType().isSolid()) return false;
-        if (isDangerous(feet.getType()) || isDangerous(head.getType())) return false;
+    public void unregisterRule(SpawnRule rule) {
+        if (registeredRules.remove(rule)) invalidateRules();
+    }
 
-        // Check for lava nearby
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dz = -1; dz <= 1; dz++) {
-                if (world.getBlockAt(x + dx, y, z + dz).getType() == Material.LAVA) return false;
+    /**
+     * Rebuild every zone's rule chain on next use, e.g. after the rule settings changed.
+     */
+    public synchronized void invalidateRules() {
+        rulesVersion++;
+    }
+
+    /**
+     * The zone's rule chain, built from the current rule set if needed. Two threads may both
+     * rebuild a stale chain; the last one built wins, which is harmless.
+     */
+    public RuleChain chainFor(SpawnZone zone) {
+        RuleChain chain = zone.getRuleChain();
+        if (chain == null || chain.getVersion() != rulesVersion) {
+            List<SpawnRule> terrain = List.of(new SpawnRules.Biome(config), new SpawnRules.Ground(config));
+            List<SpawnRule> rules = new ArrayList<>();
+            if (gpHook.isEnabled()) rules.add(new SpawnRules.Claim(gpHook));
+            rules.add(new SpawnRules.Survey(surveyRejects));
+            rules.addAll(terrain);
+            if (!config.getDenyGround().isEmpty()) {
+                rules.add(new SpawnRules.DenyGround(
+                        BlockRules.resolve(config.getDenyGround(), "rules.deny-ground", plugin.getLogger())));
+            }
+            if (config.getMinPlayerDistance() > 0) {
+                rules.add(new SpawnRules.PlayerDistance(config.getMinPlayerDistance()));
             }
+            rules.addAll(registeredRules);
+
+            chain = new RuleChain(rules, terrain, config.getRuleReorderInterval(), rulesVersion, plugin.getLogger());
+            zone.setRuleChain(chain);
         }
-        return true;
+        return chain;
+    }
+
+    /**
+     * Drop the prebuilt spawn point sampler so it is rebuilt on next use.
+     * Called whenever zones are reloaded or spawn blocks are added or removed.
+     */
+    public void invalidateSampler() {
+        sampler = null;
     }
 
-    private static class WeightedEntry {
-        final Object object;
-        final double weight;
-        WeightedEntry(Object o, double w) { this.object = o; this.weight = w; }
+    private WeightedSampler<Object> getSampler() {
+        WeightedSampler<Object> current = sampler;
+        if (current == null) {
+            current = buildSampler();
+            sampler = current;
+        }
+        return current;
     }
 
     /**
-     * Select a random zone based on weights.
+     * Build an alias table over every zone plus one entry standing in for all spawn blocks.
+     * Each spawn block has the same weight, so the group is weighted by their count and
+     * a block is then picked uniformly, which keeps the table small on servers with many blocks.
      */
-    private SpawnZone selectRandomZone(List<SpawnZone> zones) {
-        if (zones.size() == 1) {
-            return zones.get(0);
-        }
+    private WeightedSampler<Object> buildSampler() {
+        List<SpawnZone> zones = config.getZones();
+        int blockCount = (config.isSpawnBlocksEnabled() && spawnBlockManager != null)
+                ? spawnBlockManager.getSpawnBlockCount() : 0;
+
+        List<Object> items = new ArrayList<>(zones.size() + 1);
+        double[] weights = new double[zones.size() + (blockCount > 0 ? 1 : 0)];
 
-        // Calculate total weight
-        double totalWeight = 0;
         for (SpawnZone zone : zones) {
-            totalWeight += zone.getWeight();
+            weights[items.size()] = zone.getWeight();
+            items.add(zone);
+        }
+        if (blockCount > 0) {
+            weights[items.size()] = blockCount * config.getSpawnBlockWeight();
+            items.add(SPAWN_BLOCK_GROUP);
         }
 
-        // Select random based on weight
-        double random = ThreadLocalRandom.current().nextDouble() * totalWeight;
-        double cumulative = 0;
+        return new WeightedSampler<>(items, weights);
+    }
 
-        for (SpawnZone zone : zones) {
-            cumulative += zone.getWeight();
-            if (random < cumulative) {
-                return zone;
-            }
+    private Location attemptZoneSpawn(SpawnZone zone, Player player) {
+        World world = zone.getWorld();
+        if (world == null) return null;
+
+        Location pooled = takePooledLocation(zone, player);
+        if (pooled != null) return pooled;
+
+        int[] xz = columns.get();
+        if (!zone.sampleColumn(xz)) return null;
+
+        // Reject candidates in chunks the zone may not touch before any world access
+        if (!zone.acceptsChunk(world, xz[0] >> 4, xz[1] >> 4)) return null;
+
+        int feetY = validateColumn(zone, world, xz, player);
+        return feetY != REJECTED ? spawnPoint(world, xz[0], feetY, xz[1]) : null;
+    }
+
+    /**
+     * Take a pre-validated location from the zone's pool.
+     * Only the rules are repeated, since the chunk was already vetted. Locations in chunks the
+     * current thread doesn't own (other regions, on Folia) are left in the pool.
+     */
+    private Location takePooledLocation(SpawnZone zone, Player player) {
+        if (!config.isPoolEnabled()) return null;
+
+        long maxAge = config.getPoolMaxAgeMillis();
+        Location loc;
+        RuleChain chain = chainFor(zone);
+        while ((loc = zone.getPool().poll(maxAge, this::ownsLocation)) != null) {
+            World world = loc.getWorld();
+            int x = loc.getBlockX();
+            int z = loc.getBlockZ();
+
+            // Blocks or claims may have changed since the location was pooled
+            SpawnCandidate c = candidates.get();
+            c.set(zone, world, x, z, player);
+            c.setY(loc.getBlockY());
+            boolean usable = zone.getChunkMode().accepts(world, x >> 4, z >> 4)
+                    && chain.testColumn(c) && chain.testSpot(c, false) == RuleChain.PASSED;
+            if (prewarmer != null) prewarmer.taken(loc, usable);
+            if (!usable) continue;
+            lastPooledLocation = loc.clone();
+            return loc;
         }
+        return null;
+    }
 
-        return zones.get(zones.size() - 1);
+    private boolean ownsLocation(Location loc) {
+        return scheduler.ownsChunk(loc.getWorld(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
     }
 
     /**
-     * Find a safe Y coordinate at the given X/Z location.
+     * Run the full set of checks on a candidate column, without allocating.
+     * The column may be moved onto its height cache cell's anchor, so {@code xz} is updated.
+     *
+     * Terrain outcomes are fed to the zone's acceptance mask and height cache; a cached
+     * outcome needs no world reads at all.
+     *
+     * @return Feet Y of the safe spot, or {@link #REJECTED}
      */
-    private Location findSafeY(Location loc) {
-        World world = loc.getWorld();
-        if (world == null) {
-            return null;
+    private int validateColumn(SpawnZone zone, World world, int[] xz, Player player) {
+        int feetY = precheckColumn(zone, world, xz, player);
+        if (feetY == REJECTED) return REJECTED;
+        return checkSpot(zone, world, xz[0], xz[1], feetY, player);
+    }
+
+    /**
+     * Find the spot's Y if not known yet, then run the zone's spot rules on it. A cached Y only
+     * saves the surface search: the terrain rules re-read the spot's blocks and biome, since the
+     * column may have changed without an event the height cache listens to.
+     *
+     * @param feetY Cached feet Y, or {@link #UNCHECKED}
+     * @return Feet Y of the safe spot, or {@link #REJECTED}
+     */
+    private int checkSpot(SpawnZone zone, World world, int x, int z, int feetY, Player player) {
+        boolean terrainKnown = feetY != UNCHECKED;
+        if (!terrainKnown) {
+            feetY = findSafeY(world, x, z);
+            if (feetY == SnapshotEvaluator.UNSAFE) {
+                recordTerrain(zone, x, z, SnapshotEvaluator.UNSAFE);
+                return REJECTED;
+            }
         }
 
-        int x = loc.getBlockX();
-        int z = loc.getBlockZ();
+        SpawnCandidate c = candidates.get();
+        c.set(zone, world, x, z, player);
+        c.setY(feetY);
+        int outcome = chainFor(zone).testSpot(c, false);
+        if (outcome == RuleChain.TERRAIN_REJECTED) {
+            recordTerrain(zone, x, z, SnapshotEvaluator.UNSAFE);
+            return REJECTED;
+        }
+        if (outcome != RuleChain.PASSED) return REJECTED;
 
-        // Use heightmap to find the surface
-        int surfaceY = world.getHighestBlockYAt(x, z, HeightMap.MOTION_BLOCKING_NO_LEAVES);
+        if (!terrainKnown) {
+            recordTerrain(zone, x, z, feetY);
+        } else {
+            // The rules just re-read the cached spot, so this is a live success too
+            recordTerrainSuccess(zone, x, z);
+        }
+        return feetY;
+    }
 
-        // Respect Y limits from config
-        int minY = config.getMinY();
-        int maxY = config.getMaxY();
+    /**
+     * Evaluate a zone candidate together with more columns of its chunk, which must be loaded.
+     * The chunk is snapshotted once and the columns are checked off the main thread. The first
+     * safe column is the result and the other safe ones go to the zone's pool, so one chunk load
+     * can serve several spawns. Completes on the thread owning the chunk.
+     *
+     * @param zone   Zone the candidate was sampled from
+     * @param chunk  Loaded chunk holding the candidate
+     * @param first  Candidate location (Y is ignored)
+     * @param player The player who would spawn here (null rejects any claim)
+     */
+    public CompletableFuture<Location> evaluateChunk(SpawnZone zone, Chunk chunk, Location first, Player player) {
+        int[] xz = {first.getBlockX(), first.getBlockZ()};
+        int feetY = precheckColumn(zone, chunk.getWorld(), xz, player);
+        if (feetY == REJECTED) return CompletableFuture.completedFuture(null);
+        return evaluateChunk(zone, chunk, xz[0], xz[1], feetY, player);
+    }
 
-        if (surfaceY < minY) {
-            // Surface is below minimum - this might be a cave or ocean floor
-            // Try to find a safe spot above
-            for (int y = minY; y <= Math.min(maxY, world.getMaxHeight() - 2); y++) {
-                Block block = world.getBlockAt(x, y, z);
-                Block above = world.getBlockAt(x, y + 1, z);
-                Block below = world.getBlockAt(x, y - 1, z);
-
-                if (below.getType().isSolid() &&
-                        !block.getType().isSolid() && block.getType() != Material.LAVA &&
-                        !above.getType().isSolid()) {
-                    loc.setY(y);
-                    return loc;
+    /**
+     * @param firstY Outcome of the first candidate's pre-check: a cached feet Y or {@link #UNCHECKED}
+     */
+    private CompletableFuture<Location> evaluateChunk(SpawnZone zone, Chunk chunk, int firstX, int firstZ,
+                                                      int firstY, Player player) {
+        World world = chunk.getWorld();
+        int wanted = config.getBatchCandidates();
+        if (wanted <= 1 || firstY != UNCHECKED) {
+            int feetY = checkSpot(zone, world, firstX, firstZ, firstY, player);
+            return CompletableFuture.completedFuture(
+                    feetY != REJECTED ? spawnPoint(world, firstX, feetY, firstZ) : null);
+        }
+
+        int[] xs = new int[wanted];
+        int[] zs = new int[wanted];
+        int count = 0;
+        int[] xz = columns.get();
+        for (int i = 0; i < wanted; i++) {
+            int feetY;
+            if (i == 0) {
+                xz[0] = firstX;
+                xz[1] = firstZ;
+                feetY = UNCHECKED;
+            } else if (zone.sampleColumnInChunk(chunk.getX(), chunk.getZ(), xz)) {
+                feetY = precheckColumn(zone, world, xz, player);
+            } else {
+                continue;
+            }
+
+            if (feetY == REJECTED || containsColumn(xs, zs, count, xz[0], xz[1])) continue;
+            // Known safe from the height cache - no need to snapshot the chunk at all
+            if (feetY != UNCHECKED) {
+                feetY = checkSpot(zone, world, xz[0], xz[1], feetY, player);
+                if (feetY != REJECTED) {
+                    return CompletableFuture.completedFuture(spawnPoint(world, xz[0], feetY, xz[1]));
                 }
+                continue;
             }
-            return null;
+            xs[count] = xz[0];
+            zs[count] = xz[1];
+            count++;
         }
+        if (count == 0) return CompletableFuture.completedFuture(null);
+
+        int[] batchXs = Arrays.copyOf(xs, count);
+        int[] batchZs = Arrays.copyOf(zs, count);
+        ChunkSnapshot snapshot = chunk.getChunkSnapshot(true, true, false);
+        SnapshotEvaluator evaluator = new SnapshotEvaluator(config, world);
+        batchSnapshots.increment();
+        batchColumns.add(count);
+        return CompletableFuture.supplyAsync(() -> evaluator.evaluate(snapshot, batchXs, batchZs), scheduler.async())
+                .thenApplyAsync(ys -> pickCandidate(zone, world, batchXs, batchZs, ys, player),
+                        scheduler.at(world, chunk.getX(), chunk.getZ()));
+    }
 
-        if (maxY < 255 && surfaceY > maxY) {
-            // Surface is above maximum (like a mountain)
-            return null;
+    private Location pickCandidate(SpawnZone zone, World world, int[] xs, int[] zs, int[] feetYs, Player player) {
+        RuleChain chain = chainFor(zone);
+        SpawnCandidate c = candidates.get();
+        Location result = null;
+        for (int i = 0; i < feetYs.length; i++) {
+            if (!recordTerrain(zone, xs[i], zs[i], feetYs[i])) continue;
+
+            // The snapshot covered the terrain rules; the others still apply
+            c.set(zone, world, xs[i], zs[i], player);
+            c.setY(feetYs[i]);
+            if (chain.testSpot(c, true) != RuleChain.PASSED) continue;
+
+            Location spot = spawnPoint(world, xs[i], feetYs[i], zs[i]);
+            if (result == null) {
+                result = spot;
+            } else if (zone.getPool().offer(spot)) {
+                batchPooled.increment();
+            }
         }
+        return result;
+    }
 
-        // Use the surface
-        loc.setY(surfaceY + 1);
-        return loc;
+    /**
+     * Record the terrain of a loaded chunk in the zone's height cache, e.g. after it was
+     * pre-generated. A 4x4 grid of columns, snapped to their cache cells, is evaluated from one
+     * snapshot off the main thread. Must be called on the thread owning the chunk.
+     *
+     * @return Completes with whether any of the columns is safe, or null if none lies in the ring
+     */
+    public CompletableFuture<Boolean> recordChunkTerrain(SpawnZone zone, Chunk chunk) {
+        HeightCache cache = zone.getHeightCache();
+        int[] xs = new int[16];
+        int[] zs = new int[16];
+        int count = 0;
+        for (int i = 0; i < 16; i++) {
+            int x = (chunk.getX() << 4) + 2 + (i & 3) * 4;
+            int z = (chunk.getZ() << 4) + 2 + (i >> 2) * 4;
+            int cell = cache != null ? cache.cellAt(x, z) : -1;
+            if (cell >= 0) {
+                x = cache.anchorX(cell);
+                z = cache.anchorZ(cell);
+            } else if (!zone.containsColumn(x, z)) {
+                continue;
+            }
+            if (containsColumn(xs, zs, count, x, z)) continue;
+            xs[count] = x;
+            zs[count] = z;
+            count++;
+        }
+        if (count == 0) return CompletableFuture.completedFuture(null);
+
+        int[] batchXs = Arrays.copyOf(xs, count);
+        int[] batchZs = Arrays.copyOf(zs, count);
+        ChunkSnapshot snapshot = chunk.getChunkSnapshot(true, true, false);
+        SnapshotEvaluator evaluator = new SnapshotEvaluator(config, chunk.getWorld());
+        return CompletableFuture.supplyAsync(() -> {
+            int[] feetYs = evaluator.evaluate(snapshot, batchXs, batchZs);
+            boolean anySafe = false;
+            for (int i = 0; i < feetYs.length; i++) {
+                boolean safe = feetYs[i] != SnapshotEvaluator.UNSAFE;
+                anySafe |= safe;
+                int cell = cache != null ? cache.cellAt(batchXs[i], batchZs[i]) : -1;
+                if (cell < 0) continue;
+                if (safe) {
+                    cache.putSafe(cell, feetYs[i]);
+                } else {
+                    cache.putUnsafe(cell);
+                }
+            }
+            return anySafe;
+        }, scheduler.async());
+    }
+
+    private static boolean containsColumn(int[] xs, int[] zs, int count, int x, int z) {
+        for (int i = 0; i < count; i++) {
+            if (xs[i] == x && zs[i] == z) return true;
+        }
+        return false;
     }
 
     /**
-     * Check if the biome at this location is blocked.
+     * Checks that need no terrain. Snaps the column to its height cache cell, then runs the
+     * zone's column rules (claims, survey, ...) and rejects cached failures.
+     *
+     * @return Cached feet Y, {@link #UNCHECKED} if the terrain must be read, or {@link #REJECTED}
      */
-    private boolean isBiomeBlocked(Location loc) {
-        if (config.getBlockedBiomes().isEmpty()) {
-            return false;
+    private int precheckColumn(SpawnZone zone, World world, int[] xz, Player player) {
+        // Snap to the column the height cache describes, so its entry applies exactly
+        HeightCache cache = zone.getHeightCache();
+        int cell = cache != null ? cache.cellAt(xz[0], xz[1]) : -1;
+        if (cell >= 0) {
+            xz[0] = cache.anchorX(cell);
+            xz[1] = cache.anchorZ(cell);
         }
 
-        String biomeName = loc.getWorld().getBiome(loc).getKey().value().toUpperCase();
-        return config.getBlockedBiomes().contains(biomeName);
+        int x = xz[0];
+        int z = xz[1];
+
+        SpawnCandidate c = candidates.get();
+        c.set(zone, world, x, z, player);
+        if (!chainFor(zone).testColumn(c)) return REJECTED;
+
+        if (cell < 0) return UNCHECKED;
+        int cached = cache.get(cell);
+        if (cached == HeightCache.UNKNOWN) {
+            heightCacheMisses.increment();
+            return UNCHECKED;
+        }
+        heightCacheHits.increment();
+        // Not fed to the mask: only fresh terrain reads count towards clearing a cell
+        if (cached == HeightCache.UNSAFE) return REJECTED;
+        return cached;
     }
 
     /**
-     * Check if the location is safe for spawning (solid ground, no hazards).
+     * Feed a terrain outcome to the zone's height cache and acceptance mask.
+     *
+     * @param feetY Feet Y of the safe spot, or {@link SnapshotEvaluator#UNSAFE}
+     * @return whether the column is safe
      */
-    private boolean isSafeLocation(Location loc) {
-        World world = loc.getWorld();
-        if (world == null) {
-            return false;
+    private boolean recordTerrain(SpawnZone zone, int x, int z, int feetY) {
+        boolean safe = feetY != SnapshotEvaluator.UNSAFE;
+        HeightCache cache = zone.getHeightCache();
+        int cell = cache != null ? cache.cellAt(x, z) : -1;
+        if (cell >= 0) {
+            if (safe) {
+                cache.putSafe(cell, feetY);
+            } else {
+                cache.putUnsafe(cell);
+            }
         }
 
-        int x = loc.getBlockX();
-        int y = loc.getBlockY();
-        int z = loc.getBlockZ();
+        if (!safe) {
+            recordTerrainFailure(zone, x, z);
+        } else {
+            recordTerrainSuccess(zone, x, z);
+        }
+        return safe;
+    }
 
-        Block feet = world.getBlockAt(x, y, z);
-        Block head = world.getBlockAt(x, y + 1, z);
-        Block ground = world.getBlockAt(x, y - 1, z);
+    private static Location spawnPoint(World world, int x, int feetY, int z) {
+        return new Location(world, x + 0.5, feetY, z + 0.5);
+    }
 
-        // Check ground is solid
-        if (!ground.getType().isSolid()) {
-            return false;
+    private void recordTerrainFailure(SpawnZone zone, int x, int z) {
+        ZoneMask mask = zone.getMask();
+        if (mask != null && mask.recordFailure(x, z, config.getMaskFailureThreshold())) {
+            maskCellsCleared.increment();
         }
+    }
 
-        // Check feet and head positions are not solid or dangerous
-        if (feet.getType().isSolid() || head.getType().isSolid()) {
-            return false;
+    private void recordTerrainSuccess(SpawnZone zone, int x, int z) {
+        ZoneMask mask = zone.getMask();
+        if (mask != null && mask.recordSuccess(x, z)) {
+            maskCellsRestored.increment();
         }
+    }
+
+    /**
+     * Check that a spawn block still exists in the world, unregistering it if not.
+     * Catches blocks removed without an event, e.g. by world editors.
+     * Returns false only if the block is known to be gone; blocks in unloaded worlds are kept.
+     */
+    private boolean verifySpawnBlock(SpawnBlock block) {
+        Location blockLoc = block.getBlockLocation();
+        if (blockLoc == null) return true;
+
+        Block worldBlock = blockLoc.getBlock();
+        if (worldBlock.getType() == Material.LODESTONE) return true;
 
-        // Check for hazards
-        if (isDangerous(feet.getType()) || isDangerous(head.getType()) || isDangerous(ground.getType())) {
-            return false;
+        plugin.getLogger().warning("Spawn block at " + block.getLocationKey() + " no longer exists");
+        spawnBlockManager.removeSpawnBlock(blockLoc);
+        return false;
+    }
+
+    /**
+     * Spawn location above a spawn block, or null if unsafe.
+     * A cached verdict from background verification is used for the headroom, but the block
+     * itself is re-checked when its chunk is loaded here; otherwise the headroom is checked here
+     * (the chunk must be loaded) and the result cached.
+     */
+    private Location attemptSpawnBlockSpawn(SpawnBlock block, byte verdict) {
+        Location loc = block.getSpawnLocation();
+        if (loc == null || loc.getWorld() == null) return null;
+
+        if (verdict != SpawnBlockRegistry.VERDICT_UNKNOWN) {
+            verdictHits.increment();
+            if (verdict != SpawnBlockRegistry.VERDICT_SAFE) return null;
+            // Unloaded chunks are re-verified when they load; never load one just for this
+            World world = loc.getWorld();
+            int chunkX = block.getX() >> 4;
+            int chunkZ = block.getZ() >> 4;
+            if (scheduler.ownsChunk(world, chunkX, chunkZ) && world.isChunkLoaded(chunkX, chunkZ)
+                    && !verifySpawnBlock(block)) {
+                return null;
+            }
+            return loc;
         }
 
+        // Check safety at spawn location
+        boolean safe = isSpawnBlockLocationSafe(loc);
+        verdictMisses.increment();
+        spawnBlockManager.setVerdict(block, safe ? SpawnBlockRegistry.VERDICT_SAFE : SpawnBlockRegistry.VERDICT_UNSAFE);
+        return safe ? loc : null;
+    }
+
+    private boolean isSpawnBlockLocationSafe(Location loc) {
+        World world = loc.getWorld();
+        if (world == null) return false;
+        return isSpawnBlockLocationSafe(world, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+    }
+
+    /**
+     * Whether a player can stand at the given feet position above a spawn block.
+     * The chunks around the position must be loaded.
+     */
+    boolean isSpawnBlockLocationSafe(World world, int x, int y, int z) {
+        BlockRules rules = config.getBlockRules();
+        if (!rules.isPassable(world.getType(x, y, z)) || !rules.isPassable(world.getType(x, y + 1, z))) return false;
+
+        // Check for lava nearby
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                if (world.getType(x + dx, y, z + dz) == Material.LAVA) return false;
+            }
+        }
         return true;
     }
 
     /**
-     * Check if a material is dangerous to spawn in/on.
+     * Find a safe feet Y in the given column, or {@link SnapshotEvaluator#UNSAFE}.
+     */
+    private int findSafeY(World world, int x, int z) {
+        // Use heightmap to find the surface
+        int surfaceY = world.getHighestBlockYAt(x, z, HeightMap.MOTION_BLOCKING_NO_LEAVES);
+
+        // Respect Y limits from config
+        int minY = config.getMinY();
+        int maxY = config.getMaxY();
+        BlockRules rules = config.getBlockRules();
+
+        if (surfaceY < minY) {
+            // Surface is below minimum - this might be a cave or ocean floor
+            // Try to find a safe spot above
+            for (int y = minY; y <= Math.min(maxY, world.getMaxHeight() - 2); y++) {
+                Material block = world.getType(x, y, z);
+                if (rules.isSolid(world.getType(x, y - 1, z)) &&
+                        !rules.isSolid(block) && block != Material.LAVA &&
+                        !rules.isSolid(world.getType(x, y + 1, z))) {
+                    return y;
+                }
+            }
+            return SnapshotEvaluator.UNSAFE;
+        }
+
+        if (maxY < 255 && surfaceY > maxY) {
+            // Surface is above maximum (like a mountain)
+            return SnapshotEvaluator.UNSAFE;
+        }
+
+        // Use the surface
+        return surfaceY + 1;
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, or -1 if the JVM can't tell.
      */
-    private boolean isDangerous(Material material) {
-        return switch (material) {
-            case LAVA, FIRE, SOUL_FIRE, CAMPFIRE, SOUL_CAMPFIRE, MAGMA_BLOCK,
-                    CACTUS, SWEET_BERRY_BUSH, WITHER_ROSE, POWDER_SNOW -> true;
-            default -> false;
-        };
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+                return threads;
+            }
+        } catch (UnsupportedOperationException | LinkageError e) {
+            // Not a HotSpot-style JVM
+        }
+        return null;
     }
 }
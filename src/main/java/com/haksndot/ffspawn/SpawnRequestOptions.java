@@ -0,0 +1,55 @@
+package com.haksndot.ffspawn;
+
+/**
+ * How a spawn search requested through {@link FFSpawnService} may pick its location.
+ * Immutable, so one instance can be shared by any number of requests.
+ */
+public final class SpawnRequestOptions {
+
+    /**
+     * Same choice as a respawn: any zone or spawn block, by weight, with pooled locations.
+     */
+    public static final SpawnRequestOptions DEFAULT = new SpawnRequestOptions(null, true, true, 0);
+
+    private final String zone;
+    private final boolean spawnBlocks;
+    private final boolean usePool;
+    private final int maxAttempts;
+
+    /**
+     * @param zone        Name of the only zone to search, or null for any zone by weight
+     * @param spawnBlocks Whether spawn blocks may be picked; ignored when a zone is given
+     * @param usePool     Whether ready pooled locations may be handed out. Without them the
+     *                    search always checks fresh candidates, which leaves the pools to respawns.
+     * @param maxAttempts Candidates to try, or 0 for {@code max-attempts} from the config
+     */
+    public SpawnRequestOptions(String zone, boolean spawnBlocks, boolean usePool, int maxAttempts) {
+        this.zone = zone;
+        this.spawnBlocks = spawnBlocks;
+        this.usePool = usePool;
+        this.maxAttempts = Math.max(0, maxAttempts);
+    }
+
+    /**
+     * Default options restricted to one zone.
+     */
+    public static SpawnRequestOptions inZone(String zone) {
+        return new SpawnRequestOptions(zone, false, true, 0);
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public boolean isSpawnBlocks() {
+        return spawnBlocks && zone == null;
+    }
+
+    public boolean isUsePool() {
+        return usePool;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+}
@@ -0,0 +1,42 @@
+package com.haksndot.ffspawn;
+
+/**
+ * One check a zone spawn candidate must pass.
+ * <p>
+ * Rules are run by a {@link RuleChain}, which orders them per zone so that cheap rules that
+ * reject often come first. Other plugins can add rules with {@link FFSpawnService#registerRule}.
+ * Rules run on the main thread, or on Folia on the thread of the region owning the candidate's
+ * chunk, so a rule may read the world there but must not keep shared mutable state. Outcomes of
+ * added rules are never cached, so they may depend on anything, e.g. where other players are.
+ */
+public interface SpawnRule {
+
+    /**
+     * When a rule can run.
+     */
+    enum Stage {
+        /** Only X and Z are known. Runs before any terrain is read. */
+        COLUMN,
+        /** The feet Y of the spot is known. */
+        SPOT
+    }
+
+    /**
+     * Short name shown in {@code /ffs stats}.
+     */
+    String getName();
+
+    Stage getStage();
+
+    /**
+     * Rough relative cost of one {@link #test}. The built-in rules use 1 for an in-memory lookup
+     * and about 1 per block or biome read. Queried each time a chain is re-ordered.
+     */
+    double getCost();
+
+    /**
+     * @param candidate The candidate; only valid during the call
+     * @return true if the candidate may be used
+     */
+    boolean test(SpawnCandidate candidate);
+}
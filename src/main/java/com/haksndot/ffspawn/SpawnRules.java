@@ -0,0 +1,231 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The built-in {@link SpawnRule}s.
+ */
+public final class SpawnRules {
+
+    private SpawnRules() {
+    }
+
+    /**
+     * Rejects columns in a GriefPrevention claim the player may not use.
+     */
+    static final class Claim implements SpawnRule {
+        private final GriefPreventionHook gpHook;
+
+        Claim(GriefPreventionHook gpHook) {
+            this.gpHook = gpHook;
+        }
+
+        @Override
+        public String getName() {
+            return "claim";
+        }
+
+        @Override
+        public Stage getStage() {
+            return Stage.COLUMN;
+        }
+
+        @Override
+        public double getCost() {
+            // A grid lookup, unless the claim index is off and GriefPrevention is asked directly
+            return gpHook.getClaimIndex() != null ? 1 : 4;
+        }
+
+        @Override
+        public boolean test(SpawnCandidate c) {
+            return !gpHook.isInClaim(c.getWorld(), c.getX(), c.getZ(), c.getPlayer());
+        }
+    }
+
+    /**
+     * Rejects columns the zone's terrain survey knows to be unusable.
+     */
+    static final class Survey implements SpawnRule {
+        private final LongAdder rejects;
+
+        Survey(LongAdder rejects) {
+            this.rejects = rejects;
+        }
+
+        @Override
+        public String getName() {
+            return "survey";
+        }
+
+        @Override
+        public Stage getStage() {
+            return Stage.COLUMN;
+        }
+
+        @Override
+        public double getCost() {
+            return 1;
+        }
+
+        @Override
+        public boolean test(SpawnCandidate c) {
+            SurveyIndex survey = c.getZone().getSurvey();
+            if (survey == null || survey.isUsable(c.getX(), c.getZ()) != 0) return true;
+            rejects.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Rejects spots in a blocked biome.
+     */
+    static final class Biome implements SpawnRule {
+        private final ConfigManager config;
+
+        Biome(ConfigManager config) {
+            this.config = config;
+        }
+
+        @Override
+        public String getName() {
+            return "biome";
+        }
+
+        @Override
+        public Stage getStage() {
+            return Stage.SPOT;
+        }
+
+        @Override
+        public double getCost() {
+            return config.getBlockedBiomeSet().isEmpty() ? 0.1 : 2;
+        }
+
+        @Override
+        public boolean test(SpawnCandidate c) {
+            return config.getBlockedBiomeSet().isEmpty()
+                    || !config.isBiomeBlocked(c.getWorld().getBiome(c.getX(), c.getY(), c.getZ()));
+        }
+    }
+
+    /**
+     * Requires solid, hazard-free ground and room for the player, if enabled.
+     */
+    static final class Ground implements SpawnRule {
+        private final ConfigManager config;
+
+        Ground(ConfigManager config) {
+            this.config = config;
+        }
+
+        @Override
+        public String getName() {
+            return "ground";
+        }
+
+        @Override
+        public Stage getStage() {
+            return Stage.SPOT;
+        }
+
+        @Override
+        public double getCost() {
+            return config.isRequireSolidGround() ? 3 : 0.1;
+        }
+
+        @Override
+        public boolean test(SpawnCandidate c) {
+            return !config.isRequireSolidGround()
+                    || isSafe(config.getBlockRules(), c.getWorld(), c.getX(), c.getY(), c.getZ());
+        }
+
+        /**
+         * Check if a feet position is safe for spawning (solid ground, no hazards).
+         */
+        static boolean isSafe(BlockRules rules, World world, int x, int y, int z) {
+            return rules.isGround(world.getType(x, y - 1, z))
+                    && rules.isPassable(world.getType(x, y, z))
+                    && rules.isPassable(world.getType(x, y + 1, z));
+        }
+    }
+
+    /**
+     * Rejects spots standing on any of the configured blocks ({@code rules.deny-ground}).
+     */
+    static final class DenyGround implements SpawnRule {
+        private final BitSet denied;
+
+        DenyGround(BitSet denied) {
+            this.denied = denied;
+        }
+
+        @Override
+        public String getName() {
+            return "deny-ground";
+        }
+
+        @Override
+        public Stage getStage() {
+            return Stage.SPOT;
+        }
+
+        @Override
+        public double getCost() {
+            return 1;
+        }
+
+        @Override
+        public boolean test(SpawnCandidate c) {
+            return !denied.get(c.getWorld().getType(c.getX(), c.getY() - 1, c.getZ()).ordinal());
+        }
+    }
+
+    /**
+     * Rejects spots within {@code rules.min-player-distance} of another online player.
+     */
+    static final class PlayerDistance implements SpawnRule {
+        private final double minDistanceSquared;
+        // One per thread, since on Folia rules run on several region threads
+        private final ThreadLocal<Location> scratch = ThreadLocal.withInitial(() -> new Location(null, 0, 0, 0));
+
+        PlayerDistance(double minDistance) {
+            this.minDistanceSquared = minDistance * minDistance;
+        }
+
+        @Override
+        public String getName() {
+            return "player-distance";
+        }
+
+        @Override
+        public Stage getStage() {
+            return Stage.SPOT;
+        }
+
+        @Override
+        public double getCost() {
+            return 1 + Bukkit.getOnlinePlayers().size() / 8.0;
+        }
+
+        @Override
+        public boolean test(SpawnCandidate c) {
+            double x = c.getX() + 0.5;
+            double z = c.getZ() + 0.5;
+            Location loc = scratch.get();
+            for (Player other : Bukkit.getOnlinePlayers()) {
+                if (other == c.getPlayer() || other.getWorld() != c.getWorld()) continue;
+                other.getLocation(loc);
+                double dx = loc.getX() - x;
+                double dz = loc.getZ() - z;
+                if (dx * dx + dz * dz < minDistanceSquared) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.haksndot.ffspawn;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named counters describing how spawn searches are resolved.
+ * Hot paths should look a counter up once and keep the {@link LongAdder}.
+ */
+public class SpawnStats {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Get (or create) the counter with the given name.
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    public void increment(String name) {
+        counter(name).increment();
+    }
+
+    /**
+     * Current values sorted by name.
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, adder) -> values.put(name, adder.sum()));
+        return values;
+    }
+
+    public void reset() {
+        counters.values().forEach(LongAdder::reset);
+    }
+}
@@ -4,7 +4,9 @@ import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 
+import java.util.Locale;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Represents a donut-shaped spawn zone.
@@ -12,6 +14,11 @@ import java.util.concurrent.ThreadLocalRandom;
  */
 public class SpawnZone {
 
+    // Mask samples checked against the survey before settling for one
+    private static final int SURVEY_TRIES = 8;
+    // Column draws per in-chunk candidate before giving up (chunks on the ring's edge)
+    private static final int CHUNK_TRIES = 8;
+
     private final String name;
     private final String worldName;
     private final double centerX;
@@ -19,9 +26,23 @@ public class SpawnZone {
     private final double innerRadius;
     private final double outerRadius;
     private final double weight;
+    private final ChunkMode chunkMode;
+    private final LocationPool pool = new LocationPool(0);
+    private final LongAdder chunkRejects = new LongAdder();
+    private final LongAdder maskFallbacks = new LongAdder();
+    private volatile ZoneMask mask;
+    private volatile SurveyIndex survey;
+    private volatile HeightCache heightCache;
+    private volatile World world;
+    private volatile RuleChain ruleChain;
 
     public SpawnZone(String name, String worldName, double centerX, double centerZ,
                      double innerRadius, double outerRadius, double weight) {
+        this(name, worldName, centerX, centerZ, innerRadius, outerRadius, weight, ChunkMode.ANY);
+    }
+
+    public SpawnZone(String name, String worldName, double centerX, double centerZ,
+                     double innerRadius, double outerRadius, double weight, ChunkMode chunkMode) {
         this.name = name;
         this.worldName = worldName;
         this.centerX = centerX;
@@ -29,6 +50,20 @@ public class SpawnZone {
         this.innerRadius = innerRadius;
         this.outerRadius = outerRadius;
         this.weight = weight;
+        this.chunkMode = chunkMode;
+        this.world = Bukkit.getWorld(worldName);
+    }
+
+    /**
+     * Check whether a candidate chunk may be used under this zone's chunk mode.
+     * Never loads or generates the chunk; rejected candidates are counted.
+     */
+    public boolean acceptsChunk(World world, int chunkX, int chunkZ) {
+        if (chunkMode.accepts(world, chunkX, chunkZ)) {
+            return true;
+        }
+        chunkRejects.increment();
+        return false;
     }
 
     /**
@@ -36,10 +71,35 @@ public class SpawnZone {
      * Uses uniform distribution across the donut area.
      */
     public Location getRandomLocation() {
-        World world = Bukkit.getWorld(worldName);
-        if (world == null) {
+        World w = world;
+        int[] xz = new int[2];
+        if (w == null || !sampleColumn(xz)) {
             return null;
         }
+        // Y will be determined by the SpawnManager (find surface)
+        return new Location(w, xz[0] + 0.5, 0, xz[1] + 0.5);
+    }
+
+    /**
+     * Pick a random block column within the donut without allocating.
+     * Writes X and Z into {@code out}; returns false if none could be picked.
+     */
+    public boolean sampleColumn(int[] out) {
+        // Prefer cells that are known to be usable, and surveyed columns that are
+        ZoneMask m = mask;
+        if (m != null) {
+            SurveyIndex s = survey;
+            for (int i = 0; i < SURVEY_TRIES; i++) {
+                if (!m.sample(out)) {
+                    // No allowed cell, or only misses on the ring's edge: sample the whole ring
+                    maskFallbacks.increment();
+                    break;
+                }
+                if (s == null || s.isUsable(out[0], out[1]) != 0 || i == SURVEY_TRIES - 1) {
+                    return true;
+                }
+            }
+        }
 
         ThreadLocalRandom random = ThreadLocalRandom.current();
 
@@ -54,11 +114,52 @@ public class SpawnZone {
         double angle = random.nextDouble() * 2 * Math.PI;
 
         // Calculate coordinates
-        double x = centerX + radius * Math.cos(angle);
-        double z = centerZ + radius * Math.sin(angle);
+        out[0] = (int) Math.floor(centerX + radius * Math.cos(angle));
+        out[1] = (int) Math.floor(centerZ + radius * Math.sin(angle));
+        return true;
+    }
 
-        // Y will be determined by the SpawnManager (find surface)
-        return new Location(world, x, 0, z);
+    /**
+     * Pick a random column inside the ring within one chunk, for evaluating several
+     * candidates from a chunk that is already loaded. Writes X and Z into {@code out};
+     * returns false if none was found.
+     */
+    public boolean sampleColumnInChunk(int chunkX, int chunkZ, int[] out) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < CHUNK_TRIES; i++) {
+            int x = (chunkX << 4) + random.nextInt(16);
+            int z = (chunkZ << 4) + random.nextInt(16);
+            if (containsColumn(x, z)) {
+                out[0] = x;
+                out[1] = z;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the center of a block column lies inside the ring.
+     */
+    public boolean containsColumn(int x, int z) {
+        double dx = x + 0.5 - centerX;
+        double dz = z + 0.5 - centerZ;
+        double d2 = dx * dx + dz * dz;
+        return d2 >= innerRadius * innerRadius && d2 <= outerRadius * outerRadius;
+    }
+
+    /**
+     * Whether any part of a chunk lies inside the ring.
+     */
+    public boolean touchesChunk(int chunkX, int chunkZ) {
+        double minX = chunkX << 4, minZ = chunkZ << 4;
+        double maxX = minX + 16, maxZ = minZ + 16;
+        // Nearest and farthest points of the chunk from the center
+        double nx = Math.max(minX, Math.min(centerX, maxX)) - centerX;
+        double nz = Math.max(minZ, Math.min(centerZ, maxZ)) - centerZ;
+        double fx = Math.max(Math.abs(minX - centerX), Math.abs(maxX - centerX));
+        double fz = Math.max(Math.abs(minZ - centerZ), Math.abs(maxZ - centerZ));
+        return nx * nx + nz * nz <= outerRadius * outerRadius && fx * fx + fz * fz >= innerRadius * innerRadius;
     }
 
     public String getName() {
@@ -89,13 +190,126 @@ public class SpawnZone {
         return weight;
     }
 
+    /**
+     * Pool of pre-validated spawn locations for this zone.
+     */
+    public LocationPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Acceptance mask used for sampling, or null to sample the whole ring.
+     */
+    public ZoneMask getMask() {
+        return mask;
+    }
+
+    public void setMask(ZoneMask mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Offline terrain survey of this zone, or null if none was built.
+     */
+    public SurveyIndex getSurvey() {
+        return survey;
+    }
+
+    public void setSurvey(SurveyIndex survey) {
+        this.survey = survey;
+    }
+
+    /**
+     * Persistent cache of terrain verdicts for this zone, or null if disabled.
+     */
+    public HeightCache getHeightCache() {
+        return heightCache;
+    }
+
+    public void setHeightCache(HeightCache heightCache) {
+        this.heightCache = heightCache;
+    }
+
+    public ChunkMode getChunkMode() {
+        return chunkMode;
+    }
+
+    /**
+     * Number of candidates rejected because their chunk was not generated or not loaded.
+     */
+    public long getChunkRejects() {
+        return chunkRejects.sum();
+    }
+
+    /**
+     * Number of columns drawn from the whole ring because the mask had no allowed cell to sample.
+     */
+    public long getMaskFallbacks() {
+        return maskFallbacks.sum();
+    }
+
+    /**
+     * The zone's world, or null if it isn't loaded. Resolved once and kept up to date by
+     * {@link ZoneWorldListener}, so the hot path never looks worlds up by name.
+     */
     public World getWorld() {
-        return Bukkit.getWorld(worldName);
+        return world;
+    }
+
+    public void setWorld(World world) {
+        this.world = world;
+    }
+
+    /**
+     * The zone's rule chain, or null until {@link SpawnManager#chainFor} builds it.
+     */
+    public RuleChain getRuleChain() {
+        return ruleChain;
+    }
+
+    public void setRuleChain(RuleChain ruleChain) {
+        this.ruleChain = ruleChain;
     }
 
     @Override
     public String toString() {
-        return String.format("SpawnZone{name='%s', world='%s', center=(%.0f, %.0f), inner=%.0f, outer=%.0f, weight=%.2f}",
-                name, worldName, centerX, centerZ, innerRadius, outerRadius, weight);
+        return String.format("SpawnZone{name='%s', world='%s', center=(%.0f, %.0f), inner=%.0f, outer=%.0f, weight=%.2f, chunk-mode=%s}",
+                name, worldName, centerX, centerZ, innerRadius, outerRadius, weight, chunkMode.getConfigName());
+    }
+
+    /**
+     * Controls which chunks a zone may pick candidates from.
+     */
+    public enum ChunkMode {
+        /** Any chunk; missing terrain is loaded or generated on demand. */
+        ANY,
+        /** Only chunks that have already been generated, so terrain is never generated during a respawn. */
+        GENERATED,
+        /** Only chunks that are currently loaded, so a respawn never touches the disk either. */
+        LOADED;
+
+        public boolean accepts(World world, int chunkX, int chunkZ) {
+            return switch (this) {
+                case ANY -> true;
+                case GENERATED -> world.isChunkGenerated(chunkX, chunkZ);
+                case LOADED -> world.isChunkLoaded(chunkX, chunkZ);
+            };
+        }
+
+        public String getConfigName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Mode for a config value: ANY if the value is missing, null if it names no mode.
+         */
+        public static ChunkMode fromConfig(String value) {
+            if (value == null) return ANY;
+            String name = value.trim().toUpperCase(Locale.ROOT);
+            for (ChunkMode mode : values()) {
+                if (mode.name().equals(name)) return mode;
+            }
+            return null;
+        }
     }
 }
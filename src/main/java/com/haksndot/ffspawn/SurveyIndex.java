@@ -0,0 +1,220 @@
+package com.haksndot.ffspawn;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Per-zone terrain index produced by {@link RegionSurveyor}, read through a memory-mapped file.
+ * <pre>
+ * header (64 bytes):
+ *   int    magic ("FFSV"), int version
+ *   double center-x, center-z, inner-radius, outer-radius
+ *   int    chunk count, long directory offset, long table offset
+ * chunk records, 256 columns each (index z * 16 + x), 10 bytes per column:
+ *   short surface Y (MISSING outside the ring), short ground block, short feet block,
+ *   short head block, short biome at the feet
+ * directory: chunk count x (long chunk key, int record), sorted by key
+ * tables: block names, then biome names, each as (int count, (unsigned short length, UTF-8)*)
+ * </pre>
+ * Block and biome values are indices into the name tables. The file is independent of the
+ * server API; the plugin turns it into a per-column usable flag with {@link #classify}.
+ * All lookups are read-only and safe from any thread.
+ */
+public final class SurveyIndex {
+
+    public static final short MISSING = Short.MIN_VALUE;
+
+    static final int MAGIC = 0x46465356;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int COLUMN_SIZE = 10;
+    static final int RECORD_SIZE = 256 * COLUMN_SIZE;
+
+    private final MappedByteBuffer buffer;
+    private final double centerX;
+    private final double centerZ;
+    private final double innerRadius;
+    private final double outerRadius;
+    private final long[] keys;
+    private final int[] records;
+    private final String[] blockNames;
+    private final String[] biomeNames;
+    // Four longs (256 bits) per directory entry once classified
+    private volatile long[] usable;
+
+    private SurveyIndex(MappedByteBuffer buffer, double centerX, double centerZ, double innerRadius,
+                        double outerRadius, long[] keys, int[] records, String[] blockNames, String[] biomeNames) {
+        this.buffer = buffer;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.innerRadius = innerRadius;
+        this.outerRadius = outerRadius;
+        this.keys = keys;
+        this.records = records;
+        this.blockNames = blockNames;
+        this.biomeNames = biomeNames;
+    }
+
+    public static SurveyIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a survey index: " + file.getFileName());
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported survey index version " + buffer.getInt(4));
+            }
+
+            int count = buffer.getInt(40);
+            long directoryOffset = buffer.getLong(44);
+            long tableOffset = buffer.getLong(52);
+            if (count < 0 || directoryOffset + (long) count * 12 > buffer.capacity() || tableOffset > buffer.capacity()) {
+                throw new IOException("Survey index is truncated");
+            }
+
+            long[] keys = new long[count];
+            int[] records = new int[count];
+            buffer.position((int) directoryOffset);
+            for (int i = 0; i < count; i++) {
+                keys[i] = buffer.getLong();
+                records[i] = buffer.getInt();
+            }
+
+            buffer.position((int) tableOffset);
+            String[] blocks = readTable(buffer);
+            String[] biomes = readTable(buffer);
+
+            return new SurveyIndex(buffer, buffer.getDouble(8), buffer.getDouble(16), buffer.getDouble(24),
+                    buffer.getDouble(32), keys, records, blocks, biomes);
+        } catch (IndexOutOfBoundsException | java.nio.BufferUnderflowException e) {
+            throw new IOException("Survey index is corrupt", e);
+        }
+    }
+
+    /**
+     * Whether the index was built for exactly this ring.
+     */
+    public boolean matches(double centerX, double centerZ, double innerRadius, double outerRadius) {
+        return this.centerX == centerX && this.centerZ == centerZ
+                && this.innerRadius == innerRadius && this.outerRadius == outerRadius;
+    }
+
+    public int getChunkCount() {
+        return keys.length;
+    }
+
+    public String[] getBlockNames() {
+        return blockNames;
+    }
+
+    public String[] getBiomeNames() {
+        return biomeNames;
+    }
+
+    /**
+     * Directory entry of a chunk, or -1 if it was not surveyed.
+     */
+    public int findChunk(int chunkX, int chunkZ) {
+        int i = Arrays.binarySearch(keys, chunkKey(chunkX, chunkZ));
+        return i >= 0 ? i : -1;
+    }
+
+    /**
+     * Surface (top block) Y of a column, or {@link #MISSING} if unknown.
+     */
+    public int getSurfaceY(int x, int z) {
+        int entry = findChunk(x >> 4, z >> 4);
+        if (entry < 0) return MISSING;
+        return buffer.getShort(columnOffset(entry, x, z));
+    }
+
+    /**
+     * Derive the per-column usable flags.
+     *
+     * @param groundOk     Per block name: can be stood on
+     * @param passable     Per block name: can be occupied by a player
+     * @param biomeBlocked Per biome name: spawning is not allowed
+     * @param minY         Lowest surface Y checked here. Lower columns are left to the live
+     *                     check, which searches upward from min-y, so they count as usable.
+     * @param maxY         Highest acceptable surface Y
+     */
+    public void classify(boolean[] groundOk, boolean[] passable, boolean[] biomeBlocked, int minY, int maxY) {
+        long[] bits = new long[keys.length * 4];
+        for (int entry = 0; entry < keys.length; entry++) {
+            int base = HEADER_SIZE + records[entry] * RECORD_SIZE;
+            for (int column = 0; column < 256; column++) {
+                int p = base + column * COLUMN_SIZE;
+                short y = buffer.getShort(p);
+                if (y == MISSING || y > maxY) continue;
+                if (y < minY) {
+                    bits[entry * 4 + (column >> 6)] |= 1L << column;
+                    continue;
+                }
+                if (!groundOk[buffer.getShort(p + 2)]) continue;
+                if (!passable[buffer.getShort(p + 4)] || !passable[buffer.getShort(p + 6)]) continue;
+                if (biomeBlocked[buffer.getShort(p + 8)]) continue;
+                bits[entry * 4 + (column >> 6)] |= 1L << column;
+            }
+        }
+        usable = bits;
+    }
+
+    /**
+     * Whether a column was classified as usable: 1 yes, 0 no, -1 unknown (not surveyed or
+     * not classified yet).
+     */
+    public int isUsable(int x, int z) {
+        long[] bits = usable;
+        if (bits == null) return -1;
+        int entry = findChunk(x >> 4, z >> 4);
+        if (entry < 0) return -1;
+        int column = (z & 15) * 16 + (x & 15);
+        return (bits[entry * 4 + (column >> 6)] & (1L << column)) != 0 ? 1 : 0;
+    }
+
+    /**
+     * Whether a surveyed chunk has at least one usable column.
+     */
+    public boolean hasUsableColumn(int chunkX, int chunkZ) {
+        long[] bits = usable;
+        int entry = findChunk(chunkX, chunkZ);
+        if (bits == null || entry < 0) return false;
+        return (bits[entry * 4] | bits[entry * 4 + 1] | bits[entry * 4 + 2] | bits[entry * 4 + 3]) != 0;
+    }
+
+    /**
+     * Number of usable columns, once classified.
+     */
+    public long countUsable() {
+        long[] bits = usable;
+        if (bits == null) return 0;
+        long count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private int columnOffset(int entry, int x, int z) {
+        return HEADER_SIZE + records[entry] * RECORD_SIZE + ((z & 15) * 16 + (x & 15)) * COLUMN_SIZE;
+    }
+
+    private static String[] readTable(MappedByteBuffer buffer) {
+        String[] names = new String[buffer.getInt()];
+        for (int i = 0; i < names.length; i++) {
+            byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(bytes);
+            names[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+}
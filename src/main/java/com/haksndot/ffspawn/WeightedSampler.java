@@ -0,0 +1,115 @@
+package com.haksndot.ffspawn;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable weighted random sampler using Vose's alias method.
+ * Building costs O(n); every sample afterwards is O(1) and allocation-free.
+ * Entries with a weight of zero or less are dropped and never selected.
+ */
+public class WeightedSampler<T> {
+
+    private final Object[] items;
+    private final double[] prob;
+    private final int[] alias;
+    private final double totalWeight;
+
+    public WeightedSampler(List<T> items, double[] weights) {
+        if (items.size() != weights.length) {
+            throw new IllegalArgumentException("Expected " + items.size() + " weights, got " + weights.length);
+        }
+
+        // Drop entries that can never be chosen
+        int n = 0;
+        double total = 0;
+        for (double w : weights) {
+            if (w > 0) {
+                n++;
+                total += w;
+            }
+        }
+
+        this.items = new Object[n];
+        this.prob = new double[n];
+        this.alias = new int[n];
+        this.totalWeight = total;
+        if (n == 0) return;
+
+        double[] positive = new double[n];
+        int j = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > 0) {
+                this.items[j] = items.get(i);
+                positive[j++] = weights[i];
+            }
+        }
+
+        // Scale weights so the average bucket holds exactly 1.0
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int i = 0; i < n; i++) {
+            scaled[i] = positive[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            prob[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Whatever is left is full up to floating point error
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            prob[i] = 1.0;
+            alias[i] = i;
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            prob[i] = 1.0;
+            alias[i] = i;
+        }
+    }
+
+    /**
+     * Pick a random entry proportionally to its weight, or null if the sampler is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public T sample() {
+        if (isEmpty()) return null;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(items.length);
+        return (T) (random.nextDouble() < prob[i] ? items[i] : items[alias[i]]);
+    }
+
+    public boolean isEmpty() {
+        return items.length == 0;
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+}
@@ -0,0 +1,330 @@
+package com.haksndot.ffspawn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Coarse bitmap of the chunk-sized cells of a zone that are worth sampling.
+ * <p>
+ * Every cell touched by the zone's ring starts out allowed, weighted by how much of it lies
+ * inside the ring. Sampling picks an allowed cell from a cumulative table (binary search, no
+ * allocation) and a uniform point inside it, so cells known to be ocean, blocked biome or
+ * out-of-range terrain never cost a world lookup. Cells are cleared when they keep failing
+ * validation, or explicitly from survey results, and the mask is persisted per zone. A cleared
+ * cell isn't final: one sample in {@value #PROBE_INTERVAL} probes a cleared cell instead, and
+ * a probe that passes validation allows its cell again.
+ * Mutations are synchronized, since on Folia they come from several region threads; sampling
+ * reads an immutable table and needs no lock.
+ */
+public class ZoneMask {
+
+    private static final int MAGIC = 0x46465A4D; // "FFZM"
+    private static final int VERSION = 1;
+    private static final int CELL_SHIFT = 4;
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+    // Sub-sample grid used to estimate how much of a cell lies inside the ring
+    private static final int COVERAGE_STEPS = 4;
+    private static final int MAX_CELL_TRIES = 16;
+    // One sample in this many re-tries a cleared cell, so cells cleared by bad luck or since
+    // changed terrain come back
+    private static final int PROBE_INTERVAL = 64;
+
+    private final double centerX;
+    private final double centerZ;
+    private final double innerRadius;
+    private final double outerRadius;
+    private final int minCellX;
+    private final int minCellZ;
+    private final int width;
+    private final int height;
+    private final byte[] coverage;
+    private final byte[] failures;
+    private final BitSet allowed;
+    private volatile Table table;
+    private volatile Table cleared;
+    private boolean dirty;
+
+    public ZoneMask(SpawnZone zone) {
+        this.centerX = zone.getCenterX();
+        this.centerZ = zone.getCenterZ();
+        this.innerRadius = zone.getInnerRadius();
+        this.outerRadius = zone.getOuterRadius();
+        this.minCellX = (int) Math.floor(centerX - outerRadius) >> CELL_SHIFT;
+        this.minCellZ = (int) Math.floor(centerZ - outerRadius) >> CELL_SHIFT;
+        this.width = ((int) Math.floor(centerX + outerRadius) >> CELL_SHIFT) - minCellX + 1;
+        this.height = ((int) Math.floor(centerZ + outerRadius) >> CELL_SHIFT) - minCellZ + 1;
+        this.coverage = new byte[width * height];
+        this.failures = new byte[width * height];
+        this.allowed = new BitSet(width * height);
+
+        for (int cz = 0; cz < height; cz++) {
+            for (int cx = 0; cx < width; cx++) {
+                int cell = cz * width + cx;
+                coverage[cell] = (byte) computeCoverage(minCellX + cx, minCellZ + cz);
+                if (coverage[cell] > 0) allowed.set(cell);
+            }
+        }
+        rebuildTable();
+    }
+
+    /**
+     * Load the mask saved for a zone, or create a fresh one if there is none or the zone's
+     * geometry changed since it was saved.
+     */
+    public static ZoneMask load(SpawnZone zone, File file) throws IOException {
+        ZoneMask mask = new ZoneMask(zone);
+        if (!file.exists()) return mask;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a zone mask: " + file.getName());
+            }
+            if (in.readDouble() != mask.centerX || in.readDouble() != mask.centerZ
+                    || in.readDouble() != mask.innerRadius || in.readDouble() != mask.outerRadius) {
+                // Zone was moved or resized; start over
+                mask.dirty = true;
+                return mask;
+            }
+
+            long[] words = new long[in.readInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            BitSet saved = BitSet.valueOf(words);
+            // Never allow cells outside the ring, whatever the file says
+            mask.allowed.and(saved);
+        }
+        mask.rebuildTable();
+        return mask;
+    }
+
+    /**
+     * Write the mask if it changed since it was loaded or last saved.
+     */
+    public synchronized void saveIfDirty(File file) throws IOException {
+        if (!dirty) return;
+
+        File parent = file.getParentFile();
+        if (parent != null) parent.mkdirs();
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temp.toPath());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeDouble(centerX);
+            out.writeDouble(centerZ);
+            out.writeDouble(innerRadius);
+            out.writeDouble(outerRadius);
+            long[] words = allowed.toLongArray();
+            out.writeInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        dirty = false;
+    }
+
+    /**
+     * Pick a random block column from the allowed cells, uniformly by area within the ring.
+     * Writes X and Z into {@code out}; returns false if no cell is allowed.
+     */
+    public boolean sample(int[] out) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Table t = table;
+        Table c = cleared;
+        if (c.total > 0 && random.nextInt(PROBE_INTERVAL) == 0) t = c;
+        if (t.total == 0) return false;
+
+        for (int attempt = 0; attempt < MAX_CELL_TRIES; attempt++) {
+            int cell = t.cellAt(random.nextInt(t.total));
+            int x = ((minCellX + cell % width) << CELL_SHIFT) + random.nextInt(CELL_SIZE);
+            int z = ((minCellZ + cell / width) << CELL_SHIFT) + random.nextInt(CELL_SIZE);
+            if (inRing(x + 0.5, z + 0.5)) {
+                out[0] = x;
+                out[1] = z;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Record that a candidate in the column's cell failed terrain validation. The cell is
+     * cleared once it failed {@code threshold} times in a row.
+     *
+     * @return true if the cell was cleared
+     */
+    public synchronized boolean recordFailure(int x, int z, int threshold) {
+        int cell = cellIndex(x, z);
+        if (cell < 0 || !allowed.get(cell)) return false;
+
+        if (++failures[cell] < threshold) return false;
+        setAllowed(cell, false);
+        rebuildTable();
+        return true;
+    }
+
+    /**
+     * Record that a candidate in the column's cell passed validation. A cleared cell is
+     * allowed again.
+     *
+     * @return true if the cell was allowed again
+     */
+    public synchronized boolean recordSuccess(int x, int z) {
+        int cell = cellIndex(x, z);
+        if (cell < 0) return false;
+        failures[cell] = 0;
+        if (allowed.get(cell) || coverage[cell] == 0) return false;
+        setAllowed(cell, true);
+        rebuildTable();
+        return true;
+    }
+
+    /**
+     * Allow or clear the cell of the given chunk, e.g. from survey results.
+     */
+    public synchronized void setChunkAllowed(int chunkX, int chunkZ, boolean value) {
+        int cx = chunkX - minCellX;
+        int cz = chunkZ - minCellZ;
+        if (cx < 0 || cz < 0 || cx >= width || cz >= height) return;
+        int cell = cz * width + cx;
+        if (coverage[cell] == 0) return;
+        setAllowed(cell, value);
+    }
+
+    /**
+     * Allow the surveyed cells whose chunk has a usable column and clear the other surveyed
+     * ones. Cells the survey did not cover (e.g. ungenerated chunks) are left as they are,
+     * since nothing is known about them.
+     */
+    public synchronized void applySurvey(SurveyIndex survey) {
+        for (int cz = 0; cz < height; cz++) {
+            for (int cx = 0; cx < width; cx++) {
+                int cell = cz * width + cx;
+                if (coverage[cell] == 0 || survey.findChunk(minCellX + cx, minCellZ + cz) < 0) continue;
+                setAllowed(cell, survey.hasUsableColumn(minCellX + cx, minCellZ + cz));
+            }
+        }
+        rebuildTable();
+    }
+
+    /**
+     * Apply pending changes to the sampling table. Call after a batch of {@link #setChunkAllowed}.
+     */
+    public synchronized void commit() {
+        rebuildTable();
+    }
+
+    /**
+     * Allow every cell of the ring again.
+     */
+    public synchronized void reset() {
+        for (int cell = 0; cell < coverage.length; cell++) {
+            allowed.set(cell, coverage[cell] > 0);
+            failures[cell] = 0;
+        }
+        dirty = true;
+        rebuildTable();
+    }
+
+    public int getAllowedCells() {
+        return table.cells.length;
+    }
+
+    public int getRingCells() {
+        int count = 0;
+        for (byte c : coverage) {
+            if (c > 0) count++;
+        }
+        return count;
+    }
+
+    private void setAllowed(int cell, boolean value) {
+        if (allowed.get(cell) == value) return;
+        allowed.set(cell, value);
+        failures[cell] = 0;
+        dirty = true;
+    }
+
+    private int cellIndex(int x, int z) {
+        int cx = (x >> CELL_SHIFT) - minCellX;
+        int cz = (z >> CELL_SHIFT) - minCellZ;
+        if (cx < 0 || cz < 0 || cx >= width || cz >= height) return -1;
+        return cz * width + cx;
+    }
+
+    private int computeCoverage(int cellX, int cellZ) {
+        int count = 0;
+        double step = (double) CELL_SIZE / COVERAGE_STEPS;
+        for (int i = 0; i < COVERAGE_STEPS; i++) {
+            for (int j = 0; j < COVERAGE_STEPS; j++) {
+                double x = (cellX << CELL_SHIFT) + (i + 0.5) * step;
+                double z = (cellZ << CELL_SHIFT) + (j + 0.5) * step;
+                if (inRing(x, z)) count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean inRing(double x, double z) {
+        double dx = x - centerX;
+        double dz = z - centerZ;
+        double d2 = dx * dx + dz * dz;
+        return d2 >= innerRadius * innerRadius && d2 <= outerRadius * outerRadius;
+    }
+
+    private void rebuildTable() {
+        table = buildTable(true);
+        cleared = buildTable(false);
+    }
+
+    /**
+     * Table of the ring's allowed or cleared cells.
+     */
+    private Table buildTable(boolean allowedCells) {
+        int n = 0;
+        for (int cell = 0; cell < coverage.length; cell++) {
+            if (coverage[cell] > 0 && allowed.get(cell) == allowedCells) n++;
+        }
+        int[] cells = new int[n];
+        int[] cumulative = new int[n];
+        int total = 0;
+        int i = 0;
+        for (int cell = 0; cell < coverage.length; cell++) {
+            if (coverage[cell] == 0 || allowed.get(cell) != allowedCells) continue;
+            total += coverage[cell];
+            cells[i] = cell;
+            cumulative[i++] = total;
+        }
+        return new Table(cells, cumulative, total);
+    }
+
+    /**
+     * Allowed cells with their running coverage totals.
+     */
+    private record Table(int[] cells, int[] cumulative, int total) {
+        int cellAt(int r) {
+            // First entry whose running total exceeds r
+            int lo = 0, hi = cumulative.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] > r) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return cells[lo];
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.haksndot.ffspawn;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Keeps each zone's resolved {@link org.bukkit.World} reference current as worlds load and unload.
+ */
+public class ZoneWorldListener implements Listener {
+
+    private final ConfigManager config;
+
+    public ZoneWorldListener(ConfigManager config) {
+        this.config = config;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        for (SpawnZone zone : config.getZones()) {
+            if (zone.getWorldName().equals(event.getWorld().getName())) {
+                zone.setWorld(event.getWorld());
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        for (SpawnZone zone : config.getZones()) {
+            if (zone.getWorld() == event.getWorld()) {
+                zone.setWorld(null);
+            }
+        }
+    }
+}